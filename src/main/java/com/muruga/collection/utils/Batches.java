@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+/**
+ * Batched evaluation behind the *Batched methods of {@link CollectionUtils}: the distinct elements of the collection
+ * are split into batches, the batch function is called once per batch and its results are put back in input order.
+ * @author muruga
+ *
+ */
+final class Batches
+{
+
+	private Batches() {
+	}
+
+	/**
+	 * Returns result of the batch function for each element of the collection, in iteration order.
+	 * Repeated elements are passed to the batch function once. Batches run on the calling thread when executor is null.
+	 * Otherwise, they run on the executor with at most maxInFlight batches submitted but not yet joined: the next batch
+	 * is submitted only after the oldest one completes, and results are collected in batch order. If a batch fails,
+	 * the batches still in flight are cancelled, interrupting the threads running them, and the remaining ones are
+	 * never submitted. A batch function that ignores interruption runs to completion.
+	 * @param collection
+	 * @param batchFunc - returns one result per element of the batch, in batch order
+	 * @param batchSize
+	 * @param executor - runs the batches, or null to run them on the calling thread
+	 * @param maxInFlight - maximum number of batches submitted to the executor at a time
+	 * @return {@link List}
+	 */
+	static <T,R> List<R> apply( Collection<T> collection, Function<List<T>, ? extends List<? extends R>> batchFunc
+			, int batchSize, Executor executor, int maxInFlight ) {
+		if( batchSize < 1 )
+			throw new IllegalArgumentException( "Batch size must be positive: " + batchSize );
+		if( executor != null && maxInFlight < 1 )
+			throw new IllegalArgumentException( "Max batches in flight must be positive: " + maxInFlight );
+		Map<T,Integer> indexes = new HashMap<>();
+		List<T> distinct = new ArrayList<>();
+		int[] positions = new int[collection.size()];
+		int i = 0;
+		for( T val : collection ) {
+			Integer index = indexes.putIfAbsent( val, distinct.size() );
+			if( index == null ) {
+				index = distinct.size();
+				distinct.add( val );
+			}
+			positions[i++] = index;
+		}
+		List<List<T>> batches = new ArrayList<>();
+		for( int from = 0; from < distinct.size(); from += batchSize )
+			batches.add( distinct.subList( from, Math.min( from + batchSize, distinct.size() ) ) );
+		List<R> loaded = new ArrayList<>( distinct.size() );
+		if( executor != null && batches.size() > 1 ) {
+			pipeline( batches, batchFunc, executor, maxInFlight, loaded );
+		}
+		else {
+			for( List<T> batch : batches )
+				loaded.addAll( check( batch, batchFunc.apply( batch ) ) );
+		}
+		List<R> results = new ArrayList<>( positions.length );
+		for( int position : positions )
+			results.add( loaded.get( position ) );
+		return results;
+	}
+
+	private static <T,R> void pipeline( List<List<T>> batches, Function<List<T>, ? extends List<? extends R>> batchFunc
+			, Executor executor, int maxInFlight, List<R> loaded ) {
+		Deque<FutureTask<List<? extends R>>> inFlight = new ArrayDeque<>( Math.min( maxInFlight, batches.size() ) );
+		Iterator<List<T>> next = batches.iterator();
+		try {
+			while( next.hasNext() || !inFlight.isEmpty() ) {
+				while( next.hasNext() && inFlight.size() < maxInFlight ) {
+					List<T> batch = next.next();
+					// FutureTask, unlike CompletableFuture, interrupts its running thread when cancelled
+					FutureTask<List<? extends R>> task = new FutureTask<>( () -> check( batch, batchFunc.apply( batch ) ) );
+					inFlight.add( task );
+					executor.execute( task );
+				}
+				loaded.addAll( join( inFlight.poll() ) );
+			}
+		}
+		catch( RuntimeException | Error e ) {
+			for( FutureTask<List<? extends R>> task : inFlight )
+				task.cancel( true );
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns batch function returning, for each element of the batch, its value in the loaded map or null.
+	 */
+	static <T,R> Function<List<T>, List<R>> fromMap( Function<List<T>, ? extends Map<T, ? extends R>> loader ) {
+		return batch -> {
+			Map<T, ? extends R> loaded = loader.apply( batch );
+			List<R> results = new ArrayList<>( batch.size() );
+			for( T val : batch )
+				results.add( loaded == null ? null : loaded.get( val ) );
+			return results;
+		};
+	}
+
+	private static <T,R> List<? extends R> check( List<T> batch, List<? extends R> results ) {
+		if( results == null || results.size() != batch.size() )
+			throw new IllegalStateException( "Expected " + batch.size() + " results from batch function, but got "
+											+ ( results == null ? null : results.size() ) );
+		return results;
+	}
+
+	private static <R> R join( Future<R> future ) {
+		try {
+			return future.get();
+		}
+		catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException( "Interrupted while waiting for batches" );
+		}
+		catch( ExecutionException e ) {
+			if( e.getCause() instanceof RuntimeException )
+				throw ( RuntimeException ) e.getCause();
+			if( e.getCause() instanceof Error )
+				throw ( Error ) e.getCause();
+			throw new CompletionException( e.getCause() );
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+/**
+ * Bloom filter over 64 bit key hashes, sized for the expected insertions and false positive rate.
+ * Probes are derived from the two 32 bit halves of the hash ( Kirsch-Mitzenmacher ).
+ * @author muruga
+ *
+ */
+final class BloomFilter
+{
+
+	private final long[] words;
+
+	private final long bits;
+
+	private final int hashes;
+
+	BloomFilter( long expectedInsertions, double falsePositiveRate ) {
+		long optimalBits = ( long ) Math.ceil( -expectedInsertions * Math.log( falsePositiveRate ) / ( Math.log( 2 ) * Math.log( 2 ) ) );
+		int length = ( int ) Math.min( Integer.MAX_VALUE - 8, Math.max( 1, ( optimalBits + 63 ) / 64 ) );
+		this.words = new long[length];
+		this.bits = ( long ) length * 64;
+		this.hashes = Math.max( 1, ( int ) Math.round( ( double ) bits / expectedInsertions * Math.log( 2 ) ) );
+	}
+
+	/**
+	 * Returns false if hash was definitely never put. Otherwise, true.
+	 */
+	boolean mightContain( long hash ) {
+		int h1 = ( int ) hash;
+		int h2 = ( int ) ( hash >>> 32 );
+		for( int i = 1; i <= hashes; i++ ) {
+			long bit = ( ( h1 + ( long ) i * h2 ) & Long.MAX_VALUE ) % bits;
+			if( ( words[( int ) ( bit >>> 6 )] & 1L << bit ) == 0 )
+				return false;
+		}
+		return true;
+	}
+
+	void put( long hash ) {
+		int h1 = ( int ) hash;
+		int h2 = ( int ) ( hash >>> 32 );
+		for( int i = 1; i <= hashes; i++ ) {
+			long bit = ( ( h1 + ( long ) i * h2 ) & Long.MAX_VALUE ) % bits;
+			words[( int ) ( bit >>> 6 )] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * Returns 64 bit hash of the bytes ( FNV-1a followed by a finalizing mix ).
+	 */
+	static long hash( byte[] bytes ) {
+		long hash = 0xcbf29ce484222325L;
+		for( byte b : bytes )
+			hash = ( hash ^ ( b & 0xff ) ) * 0x100000001b3L;
+		return mix( hash );
+	}
+
+	/**
+	 * Spreads a 32 or 64 bit hash code over all 64 bits.
+	 */
+	static long mix( long hash ) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		return hash ^ hash >>> 33;
+	}
+}
@@ -38,10 +38,13 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
@@ -50,6 +53,7 @@ import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utility class for {@link List}, {@link Set}.
@@ -175,6 +179,151 @@ public class CollectionUtils
 		return collect( collection, filtering( predicate, toSet() ), new HashSet<>(), true );
 	}
 	
+	/**
+	 * Returns list after applying the batch loader sequentially, once per batch of at most batchSize distinct elements
+	 * instead of once per element. The loader returns one result per element of its batch, in batch order.
+	 * Results are in the collection's order; repeated elements are loaded once.
+	 * <pre>
+	 * {@code Function<List<Integer>, List<Employee>> loader = ids -> repo.loadAll( ids ) }
+	 * CollectionUtils.mappingListBatched( null, loader, 100 ) = null
+	 * CollectionUtils.mappingListBatched( [], loader, 100 ) = []
+	 * CollectionUtils.mappingListBatched( [2, 1, 2], loader, 100 ) = List[{id=2}, {id=1}, {id=2}] - loader called once with [2, 1]
+	 * </pre>
+	 * See also : {@link #batchLoader(Function)}
+	 * @param collection
+	 * @param loader
+	 * @param batchSize
+	 * @return {@link List}
+	 */
+	public static <T,R> List<R> mappingListBatched( Collection<T> collection
+			, Function<List<T>, ? extends List<? extends R>> loader, int batchSize ) {
+		return batched( collection, loader, batchSize, new ArrayList<>(), null, 0 );
+	}
+	
+	/**
+	 * Returns list after applying the batch loader, loading the batches parallely on the executor with at most
+	 * maxInFlight batches submitted at a time. Use an executor sized for the loader's blocking I/O rather than
+	 * the common pool. If a batch fails, the batches still in flight are cancelled
+	 * and their threads interrupted; a loader that ignores interruption finishes its batch anyway.
+	 * See examples : {@link #mappingListBatched(Collection, Function, int)}
+	 * @param collection
+	 * @param loader
+	 * @param batchSize
+	 * @param executor
+	 * @param maxInFlight
+	 * @return {@link List}
+	 */
+	public static <T,R> List<R> mappingListBatchedParallely( Collection<T> collection
+			, Function<List<T>, ? extends List<? extends R>> loader, int batchSize, Executor executor, int maxInFlight ) {
+		return batched( collection, loader, batchSize, new ArrayList<>(), checkExecutor( executor ), maxInFlight );
+	}
+	
+	/**
+	 * Returns set after applying the batch loader sequentially.
+	 * See examples : {@link #mappingListBatched(Collection, Function, int)}
+	 * @param collection
+	 * @param loader
+	 * @param batchSize
+	 * @return {@link Set}
+	 */
+	public static <T,R> Set<R> mappingSetBatched( Collection<T> collection
+			, Function<List<T>, ? extends List<? extends R>> loader, int batchSize ) {
+		List<R> mapped = batched( collection, loader, batchSize, null, null, 0 );
+		return mapped == null ? null : new HashSet<>( mapped );
+	}
+	
+	/**
+	 * Returns set after applying the batch loader, loading the batches parallely on the executor.
+	 * See examples : {@link #mappingListBatchedParallely(Collection, Function, int, Executor, int)}
+	 * @param collection
+	 * @param loader
+	 * @param batchSize
+	 * @param executor
+	 * @param maxInFlight
+	 * @return {@link Set}
+	 */
+	public static <T,R> Set<R> mappingSetBatchedParallely( Collection<T> collection
+			, Function<List<T>, ? extends List<? extends R>> loader, int batchSize, Executor executor, int maxInFlight ) {
+		List<R> mapped = batched( collection, loader, batchSize, null, checkExecutor( executor ), maxInFlight );
+		return mapped == null ? null : new HashSet<>( mapped );
+	}
+	
+	/**
+	 * Returns filter {@link List} after applying the batch predicate sequentially, once per batch of at most
+	 * batchSize distinct elements. The predicate returns one {@link Boolean} per element of its batch.
+	 * <pre>
+	 * {@code Function<List<Integer>, List<Boolean>> predicate = ids -> repo.existsAll( ids ) }
+	 * CollectionUtils.filteringListBatched( null, predicate, 100 ) = null
+	 * CollectionUtils.filteringListBatched( [], predicate, 100 ) = []
+	 * </pre>
+	 * See also : {@link #mappingListBatched(Collection, Function, int)}
+	 * @param collection
+	 * @param predicate
+	 * @param batchSize
+	 * @return {@link List}
+	 */
+	public static <T> List<T> filteringListBatched( Collection<T> collection
+			, Function<List<T>, ? extends List<Boolean>> predicate, int batchSize ) {
+		return filteringBatched( collection, predicate, batchSize, null, 0 );
+	}
+	
+	/**
+	 * Returns filter {@link List} after applying the batch predicate, evaluating the batches parallely on the executor.
+	 * See examples : {@link #mappingListBatchedParallely(Collection, Function, int, Executor, int)}
+	 * @param collection
+	 * @param predicate
+	 * @param batchSize
+	 * @param executor
+	 * @param maxInFlight
+	 * @return {@link List}
+	 */
+	public static <T> List<T> filteringListBatchedParallely( Collection<T> collection
+			, Function<List<T>, ? extends List<Boolean>> predicate, int batchSize, Executor executor, int maxInFlight ) {
+		return filteringBatched( collection, predicate, batchSize, checkExecutor( executor ), maxInFlight );
+	}
+	
+	/**
+	 * Returns batch loader, usable with the *Batched methods, from a multi-get loader returning a map
+	 * of the found elements. Elements missing from the map are loaded as null.
+	 * <pre>
+	 * CollectionUtils.mappingListBatched( ids, CollectionUtils.batchLoader( repo::loadAllById ), 100 )
+	 * </pre>
+	 * @param loader
+	 * @return {@link Function}
+	 */
+	public static <T,R> Function<List<T>, List<R>> batchLoader( Function<List<T>, ? extends Map<T, ? extends R>> loader ) {
+		return Batches.fromMap( loader );
+	}
+	
+	private static <T,R> List<R> batched( Collection<T> collection, Function<List<T>, ? extends List<? extends R>> loader
+			, int batchSize, List<R> defaultVal, Executor executor, int maxInFlight ) {
+		if( collection == null )
+			return null;
+		if( collection.isEmpty() )
+			return defaultVal == null ? new ArrayList<>() : defaultVal;
+		return Batches.apply( collection, loader, batchSize, executor, maxInFlight );
+	}
+	
+	private static Executor checkExecutor( Executor executor ) {
+		if( executor == null )
+			throw new IllegalArgumentException( "Executor is required for parallel batches" );
+		return executor;
+	}
+	
+	private static <T> List<T> filteringBatched( Collection<T> collection
+			, Function<List<T>, ? extends List<Boolean>> predicate, int batchSize, Executor executor, int maxInFlight ) {
+		List<Boolean> matches = batched( collection, predicate, batchSize, new ArrayList<>(), executor, maxInFlight );
+		if( matches == null )
+			return null;
+		List<T> filtered = new ArrayList<>();
+		Iterator<Boolean> match = matches.iterator();
+		for( T val : collection ) {
+			if( Boolean.TRUE.equals( match.next() ) )
+				filtered.add( val );
+		}
+		return filtered;
+	}
+	
 	/**
 	 * Checks whether the value exists or not in the collection sequentially. Returns true if value exists. Otherwise, false.
 	 * <pre>
@@ -330,6 +479,52 @@ public class CollectionUtils
 		return ( Map<R, ? extends Collection<V>> ) groupBy( collection, groupByFunc, true, mapFunc );
 	}
 	
+	/**
+	 * Returns groups of the values loaded by the batch loader sequentially, once per batch of at most batchSize
+	 * distinct elements. Groups are lists if the collection is a {@link List}. Otherwise, sets.
+	 * See examples : {@link #mappingListBatched(Collection, Function, int)}
+	 * @param collection
+	 * @param groupByFunc
+	 * @param loader
+	 * @param batchSize
+	 * @return {@link Map}
+	 */
+	public static <T,R,V> Map<R, ? extends Collection<V>> groupByMappingBatched( Collection<T> collection
+			, Function<T,R> groupByFunc, Function<List<T>, ? extends List<? extends V>> loader, int batchSize ) {
+		return groupByBatched( collection, groupByFunc, loader, batchSize, null, 0 );
+	}
+	
+	/**
+	 * Returns groups of the values loaded by the batch loader, loading the batches parallely on the executor.
+	 * See examples : {@link #mappingListBatchedParallely(Collection, Function, int, Executor, int)}
+	 * @param collection
+	 * @param groupByFunc
+	 * @param loader
+	 * @param batchSize
+	 * @param executor
+	 * @param maxInFlight
+	 * @return {@link Map}
+	 */
+	public static <T,R,V> Map<R, ? extends Collection<V>> groupByMappingBatchedParallely( Collection<T> collection
+			, Function<T,R> groupByFunc, Function<List<T>, ? extends List<? extends V>> loader, int batchSize
+			, Executor executor, int maxInFlight ) {
+		return groupByBatched( collection, groupByFunc, loader, batchSize, checkExecutor( executor ), maxInFlight );
+	}
+	
+	private static <T,R,V> Map<R, ? extends Collection<V>> groupByBatched( Collection<T> collection
+			, Function<T,R> groupByFunc, Function<List<T>, ? extends List<? extends V>> loader, int batchSize
+			, Executor executor, int maxInFlight ) {
+		List<V> values = batched( collection, loader, batchSize, new ArrayList<>(), executor, maxInFlight );
+		if( values == null )
+			return null;
+		Map<R, Collection<V>> groups = new HashMap<>();
+		Iterator<V> value = values.iterator();
+		for( T val : collection )
+			groups.computeIfAbsent( groupByFunc.apply( val ), key -> collection instanceof List ? new ArrayList<>() : new HashSet<>() )
+				  .add( value.next() );
+		return groups;
+	}
+	
 	public static <T,R,V extends Comparable<? super V>> Map<R, Optional<V>> groupByMin( Collection<T> collection
 			, Function<T,R> groupByFunc, Function<T,V> minFunc ) {
 		/*return collect( collection, groupingBy( groupByFunc, mapping( minFunc, minBy( comparing( val -> (V) val ) ) ) )
@@ -490,6 +685,326 @@ public class CollectionUtils
 		return groupBy( collection, groupByFunc, mapping( aggFunc, joining( delimiter, prefix, suffix) ), true );
 	}
 	
+	/**
+	 * Returns ROLLUP of the key functions sequentially: groups of ( k0..kn-1 ), ( k0..kn-2 ), ..., ( k0 ) and the
+	 * grand total, computed in a single scan of the collection. The aggregation is any collector,
+	 * e.g. {@code counting(), summingDouble(..), averagingDouble(..), minBy(..), maxBy(..), joining(..), toSet()};
+	 * every element is accumulated into each level. To derive coarser levels from finer ones instead, use
+	 * {@link #groupByRollup(Collection, List, RollupAggregation)}.
+	 * <pre>
+	 * CollectionUtils.groupByRollup( null, [Employee::getDept, Employee::getLname], counting() ) = null
+	 * CollectionUtils.groupByRollup( [], [Employee::getDept, Employee::getLname], counting() ) = {}
+	 * CollectionUtils.groupByRollup( [{fname="m", lname="k", dept="IT"}, {fname="a", lname="k", dept="IT"}, {fname="i", lname="k", dept="HR"}]
+	 * 		, [Employee::getDept, Employee::getLname], counting() ) 
+	 * 		= {(IT, k)=2, (HR, k)=1, (IT, ALL)=2, (HR, ALL)=1, (ALL, ALL)=3}
+	 * </pre>
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByRollup( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Collector<T,?,V> aggregation ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation, GroupingSets.rollup( keyFuncs.size() ), false );
+	}
+	
+	/**
+	 * Returns ROLLUP of the key functions, scanning the collection parallely.
+	 * See examples : {@link #groupByRollup(Collection, List, Collector)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByRollupParallely( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Collector<T,?,V> aggregation ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation, GroupingSets.rollup( keyFuncs.size() ), true );
+	}
+	
+	/**
+	 * Returns CUBE of the key functions sequentially: groups of every subset of the key functions, computed in a
+	 * single scan of the collection.
+	 * <pre>
+	 * CollectionUtils.groupByCube( [{fname="m", lname="k", dept="IT"}, {fname="i", lname="k", dept="HR"}]
+	 * 		, [Employee::getDept, Employee::getLname], counting() ) 
+	 * 		= {(IT, k)=1, (HR, k)=1, (IT, ALL)=1, (HR, ALL)=1, (ALL, k)=2, (ALL, ALL)=2}
+	 * </pre>
+	 * See also : {@link #groupByRollup(Collection, List, Collector)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByCube( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Collector<T,?,V> aggregation ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation, GroupingSets.cube( keyFuncs.size() ), false );
+	}
+	
+	/**
+	 * Returns CUBE of the key functions, scanning the collection parallely.
+	 * See examples : {@link #groupByCube(Collection, List, Collector)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByCubeParallely( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Collector<T,?,V> aggregation ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation, GroupingSets.cube( keyFuncs.size() ), true );
+	}
+	
+	/**
+	 * Returns groups of the given grouping sets sequentially, computed in a single scan of the collection.
+	 * Each grouping set lists indexes of the key functions it groups by; an empty set is the grand total.
+	 * <pre>
+	 * CollectionUtils.groupByGroupingSets( [{fname="m", lname="k", dept="IT"}, {fname="i", lname="k", dept="HR"}]
+	 * 		, [Employee::getDept, Employee::getLname], counting(), {0}, {} ) 
+	 * 		= {(IT, ALL)=1, (HR, ALL)=1, (ALL, ALL)=2}
+	 * </pre>
+	 * See also : {@link #groupByRollup(Collection, List, Collector)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @param groupingSets
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByGroupingSets( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Collector<T,?,V> aggregation, int[]... groupingSets ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation
+										, GroupingSets.masks( keyFuncs.size(), groupingSets ), false );
+	}
+	
+	/**
+	 * Returns groups of the given grouping sets, scanning the collection parallely.
+	 * See examples : {@link #groupByGroupingSets(Collection, List, Collector, int[][])}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @param groupingSets
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByGroupingSetsParallely( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Collector<T,?,V> aggregation, int[]... groupingSets ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation
+										, GroupingSets.masks( keyFuncs.size(), groupingSets ), true );
+	}
+	
+	/**
+	 * Returns ROLLUP of the key functions sequentially, computed in a single scan of the collection into the finest
+	 * groups, from which every coarser level is derived. Coarser levels of {@link RollupAggregation#stringAgg(Function, String)}
+	 * join their values in the order of their finer groups.
+	 * <pre>
+	 * CollectionUtils.groupByRollup( [{lname="k", dept="IT", salary=100.0}, {lname="m", dept="IT", salary=110.0}]
+	 * 		, [Employee::getDept, Employee::getLname], RollupAggregation.sum( Employee::getSalary ) ) 
+	 * 		= {(IT, k)=100.0, (IT, m)=110.0, (IT, ALL)=210.0, (ALL, ALL)=210.0}
+	 * </pre>
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByRollup( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, RollupAggregation<T,V> aggregation ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation, GroupingSets.rollup( keyFuncs.size() ), false );
+	}
+	
+	/**
+	 * Returns ROLLUP of the key functions deriving coarser levels from finer ones, scanning the collection parallely.
+	 * See examples : {@link #groupByRollup(Collection, List, RollupAggregation)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByRollupParallely( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, RollupAggregation<T,V> aggregation ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation, GroupingSets.rollup( keyFuncs.size() ), true );
+	}
+	
+	/**
+	 * Returns CUBE of the key functions sequentially, deriving coarser levels from finer ones.
+	 * See examples : {@link #groupByRollup(Collection, List, RollupAggregation)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByCube( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, RollupAggregation<T,V> aggregation ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation, GroupingSets.cube( keyFuncs.size() ), false );
+	}
+	
+	/**
+	 * Returns CUBE of the key functions deriving coarser levels from finer ones, scanning the collection parallely.
+	 * See examples : {@link #groupByRollup(Collection, List, RollupAggregation)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByCubeParallely( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, RollupAggregation<T,V> aggregation ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation, GroupingSets.cube( keyFuncs.size() ), true );
+	}
+	
+	/**
+	 * Returns groups of the given grouping sets sequentially, deriving coarser sets from finer ones.
+	 * See examples : {@link #groupByGroupingSets(Collection, List, Collector, int[][])}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @param groupingSets
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByGroupingSets( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, RollupAggregation<T,V> aggregation, int[]... groupingSets ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation
+										, GroupingSets.masks( keyFuncs.size(), groupingSets ), false );
+	}
+	
+	/**
+	 * Returns groups of the given grouping sets deriving coarser sets from finer ones, scanning the collection parallely.
+	 * See examples : {@link #groupByGroupingSets(Collection, List, Collector, int[][])}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @param groupingSets
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<GroupingKey,V> groupByGroupingSetsParallely( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, RollupAggregation<T,V> aggregation, int[]... groupingSets ) {
+		return GroupingSets.groupingSets( collection, keyFuncs, aggregation
+										, GroupingSets.masks( keyFuncs.size(), groupingSets ), true );
+	}
+	
+	/**
+	 * Returns nested map, one level per key function, with the aggregation of each group at the leaves.
+	 * The collection is scanned once and no intermediate collections of the groups are built.
+	 * <pre>
+	 * CollectionUtils.groupByNested( [{fname="m", lname="k", dept="IT", salary=100.0}, {fname="i", lname="k", dept="HR", salary=130.0}]
+	 * 		, [Employee::getDept, Employee::getLname], summingDouble( Employee::getSalary ) ) 
+	 * 		= {IT={k=100.0}, HR={k=130.0}}
+	 * </pre>
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<Object,?> groupByNested( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Collector<T,?,V> aggregation ) {
+		return GroupingSets.nested( collection, keyFuncs, aggregation, false );
+	}
+	
+	/**
+	 * Returns nested map, one level per key function, scanning the collection parallely.
+	 * See examples : {@link #groupByNested(Collection, List, Collector)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggregation
+	 * @return {@link Map}
+	 */
+	public static <T,V> Map<Object,?> groupByNestedParallely( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Collector<T,?,V> aggregation ) {
+		return GroupingSets.nested( collection, keyFuncs, aggregation, true );
+	}
+	
+	/**
+	 * Returns count of each group, with the composite key of the key functions dictionary encoded into dense int ids
+	 * and the counts kept in an array indexed by id. Keys are decoded into {@link GroupingKey} only for the result,
+	 * so no key object is built, hashed or compared per element.
+	 * <pre>
+	 * CollectionUtils.groupByCountEncoded( null, [Employee::getDept, Employee::getLname] ) = null
+	 * CollectionUtils.groupByCountEncoded( [], [Employee::getDept, Employee::getLname] ) = {}
+	 * CollectionUtils.groupByCountEncoded( [{fname="m", lname="k", dept="IT"}, {fname="a", lname="k", dept="IT"}, {fname="i", lname="k", dept="HR"}]
+	 * 		, [Employee::getDept, Employee::getLname] ) = {(IT, k)=2, (HR, k)=1}
+	 * </pre>
+	 * See also : {@link KeyEncoder}
+	 * @param collection
+	 * @param keyFuncs
+	 * @return {@link Map}
+	 */
+	public static <T> Map<GroupingKey,Long> groupByCountEncoded( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs ) {
+		return EncodedGroupBy.groupBy( collection, keyFuncs, EncodedGroupBy.count() );
+	}
+	
+	/**
+	 * Returns sum of each group on dictionary encoded keys.
+	 * See examples : {@link #groupByCountEncoded(Collection, List)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param sumFunc
+	 * @return {@link Map}
+	 */
+	public static <T> Map<GroupingKey,Integer> groupBySumEncoded( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, ToIntFunction<T> sumFunc ) {
+		return EncodedGroupBy.groupBy( collection, keyFuncs, EncodedGroupBy.sum( sumFunc ) );
+	}
+	
+	public static <T> Map<GroupingKey,Long> groupBySumEncoded( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, ToLongFunction<T> sumFunc ) {
+		return EncodedGroupBy.groupBy( collection, keyFuncs, EncodedGroupBy.sum( sumFunc ) );
+	}
+	
+	public static <T> Map<GroupingKey,Double> groupBySumEncoded( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, ToDoubleFunction<T> sumFunc ) {
+		return EncodedGroupBy.groupBy( collection, keyFuncs, EncodedGroupBy.sum( sumFunc ) );
+	}
+	
+	/**
+	 * Returns average of each group on dictionary encoded keys.
+	 * See examples : {@link #groupByCountEncoded(Collection, List)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param avgFunc
+	 * @return {@link Map}
+	 */
+	public static <T> Map<GroupingKey,Double> groupByAvgEncoded( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, ToDoubleFunction<T> avgFunc ) {
+		return EncodedGroupBy.groupBy( collection, keyFuncs, EncodedGroupBy.avg( avgFunc ) );
+	}
+	
+	/**
+	 * Returns minimum value of each group on dictionary encoded keys. Every group has at least one element,
+	 * so values are not wrapped in {@link Optional}.
+	 * See examples : {@link #groupByCountEncoded(Collection, List)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param minFunc
+	 * @return {@link Map}
+	 */
+	public static <T,V extends Comparable<? super V>> Map<GroupingKey,V> groupByMinEncoded( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Function<T,V> minFunc ) {
+		return EncodedGroupBy.groupBy( collection, keyFuncs, EncodedGroupBy.extreme( minFunc, true ) );
+	}
+	
+	/**
+	 * Returns maximum value of each group on dictionary encoded keys.
+	 * See examples : {@link #groupByMinEncoded(Collection, List, Function)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param maxFunc
+	 * @return {@link Map}
+	 */
+	public static <T,V extends Comparable<? super V>> Map<GroupingKey,V> groupByMaxEncoded( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Function<T,V> maxFunc ) {
+		return EncodedGroupBy.groupBy( collection, keyFuncs, EncodedGroupBy.extreme( maxFunc, false ) );
+	}
+	
+	/**
+	 * Returns values of each group joined by delimiter on dictionary encoded keys.
+	 * See examples : {@link #groupByCountEncoded(Collection, List)}
+	 * @param collection
+	 * @param keyFuncs
+	 * @param aggFunc
+	 * @param delimiter
+	 * @return {@link Map}
+	 */
+	public static <T> Map<GroupingKey,String> groupByStringAggEncoded( Collection<T> collection
+			, List<? extends Function<? super T,?>> keyFuncs, Function<T,String> aggFunc, String delimiter ) {
+		return EncodedGroupBy.groupBy( collection, keyFuncs, EncodedGroupBy.stringAgg( aggFunc, delimiter ) );
+	}
+	
 	public static <T> Set<T> distint( Collection<T> collection ) {
 		return distintValue( collection, val -> val );
 	}
@@ -578,8 +1093,175 @@ public class CollectionUtils
 		return collect( collection, mapping( mapper, toSet() ), new HashSet<>(), false );
 	}
 	
-	public static <T,R> Set<T> distintValueParallely( Collection<T> collection, Function<T,R> mapper ) {
-		return collect( collection, mapping( val -> val, toSet() ), new HashSet<>(), true );
+	public static <T,R> Set<R> distintValueParallely( Collection<T> collection, Function<T,R> mapper ) {
+		return collect( collection, mapping( mapper, toSet() ), new HashSet<>(), true );
+	}
+	
+	/**
+	 * Returns distinct elements sequentially, in the collection's order. The first occurrence wins.
+	 * <pre>
+	 * CollectionUtils.distinctOrdered( null ) = null
+	 * CollectionUtils.distinctOrdered( [] ) = []
+	 * CollectionUtils.distinctOrdered( [3, 1, 3, 2, 1] ) = List[3, 1, 2]
+	 * </pre>
+	 * @param collection
+	 * @return {@link List}
+	 */
+	public static <T> List<T> distinctOrdered( Collection<T> collection ) {
+		return isEmpty( collection ) ? ( collection == null ? null : new ArrayList<>() ) 
+									 : getStream( collection, false ).distinct().collect( toList() );
+	}
+	
+	/**
+	 * Returns distinct elements parallely, in the collection's order. The first occurrence wins.
+	 * See examples : {@link #distinctOrdered(Collection)}
+	 * @param collection
+	 * @return {@link List}
+	 */
+	public static <T> List<T> distinctOrderedParallely( Collection<T> collection ) {
+		return isEmpty( collection ) ? ( collection == null ? null : new ArrayList<>() ) 
+									 : getStream( collection, true ).distinct().collect( toList() );
+	}
+	
+	/**
+	 * Returns elements with distinct keys sequentially, in the collection's order. The first element of each key wins.
+	 * <pre>
+	 * CollectionUtils.distinctByKey( null, Employee::getDept ) = null
+	 * CollectionUtils.distinctByKey( [], Employee::getDept ) = []
+	 * CollectionUtils.distinctByKey( [{fname="m", dept="IT"}, {fname="i", dept="HR"}, {fname="a", dept="IT"}], Employee::getDept ) 
+	 * 		= List[{fname="m", dept="IT"}, {fname="i", dept="HR"}]
+	 * </pre>
+	 * @param collection
+	 * @param keyFunc
+	 * @return {@link List}
+	 */
+	public static <T,K> List<T> distinctByKey( Collection<T> collection, Function<T,K> keyFunc ) {
+		return distinctByKey( collection, keyFunc, false );
+	}
+	
+	/**
+	 * Returns elements with distinct keys parallely, in the collection's order. The first element of each key wins.
+	 * See examples : {@link #distinctByKey(Collection, Function)}
+	 * @param collection
+	 * @param keyFunc
+	 * @return {@link List}
+	 */
+	public static <T,K> List<T> distinctByKeyParallely( Collection<T> collection, Function<T,K> keyFunc ) {
+		return distinctByKey( collection, keyFunc, true );
+	}
+	
+	/**
+	 * Keys are computed parallely when asked, then filtered through a seen set in the collection's order,
+	 * so null elements and null keys are kept like any other.
+	 */
+	private static <T,K> List<T> distinctByKey( Collection<T> collection, Function<T,K> keyFunc, boolean parallel ) {
+		if( collection == null )
+			return null;
+		List<T> values = parallel ? new ArrayList<>( collection ) : null;
+		Iterator<K> keys = parallel ? values.parallelStream().map( keyFunc ).collect( toList() ).iterator() : null;
+		Set<K> seen = new HashSet<>();
+		List<T> distinct = new ArrayList<>();
+		for( T val : parallel ? values : collection ) {
+			if( seen.add( parallel ? keys.next() : keyFunc.apply( val ) ) )
+				distinct.add( val );
+		}
+		return distinct;
+	}
+	
+	/**
+	 * Returns lazy stream of the elements with distinct keys, in the stream's order. The first element of each key wins.
+	 * Memory is bounded by the options: an optional Bloom filter front stage and spilling of the seen keys to disk,
+	 * while duplicates are still removed exactly. Elements are deduplicated one at a time, in order, even if the returned
+	 * stream is made parallel: only the stages after this one run parallely. Close it to delete the spill files.
+	 * <pre>
+	 * {@code DistinctOptions<String> options = DistinctOptions.<String>inMemory()
+	 * 		.withBloomFilter( 500_000_000L, 0.01 )
+	 * 		.withSpill( 10_000_000, key -> key.getBytes( StandardCharsets.UTF_8 ) ); }
+	 * {@code try( Stream<Record> distinct = CollectionUtils.distinctStream( records, Record::getId, options ) ) {
+	 * 		distinct.forEach( writer::write );
+	 * } }
+	 * CollectionUtils.distinctStream( null, Employee::getDept, options ) = null
+	 * CollectionUtils.distinctStream( Stream[3, 1, 3, 2, 1], val -> val, options ) = Stream[3, 1, 2]
+	 * </pre>
+	 * @param stream
+	 * @param keyFunc
+	 * @param options
+	 * @return {@link Stream}
+	 */
+	public static <T,K> Stream<T> distinctStream( Stream<T> stream, Function<? super T,K> keyFunc, DistinctOptions<K> options ) {
+		if( stream == null )
+			return null;
+		Deduplicator<K> deduplicator = new Deduplicator<>( options );
+		Stream<T> filtered = stream.sequential()
+								   .filter( val -> deduplicator.add( keyFunc.apply( val ) ) )
+								   .onClose( deduplicator::close );
+		// spliterator of a sequential pipeline never splits, so a later parallel() cannot run the filter concurrently
+		return StreamSupport.stream( filtered.spliterator(), false ).onClose( filtered::close );
+	}
+	
+	/**
+	 * Evaluates the predicate once per element sequentially and returns the matched positions as {@link SelectionVector}.
+	 * Combine selections of the same list with {@link SelectionVector#and(SelectionVector)},
+	 * {@link SelectionVector#or(SelectionVector)} and {@link SelectionVector#andNot(SelectionVector)}.
+	 * <pre>
+	 * {@code Predicate<Employee> predicate = employee.getDept().equals("IT") }
+	 * CollectionUtils.selecting( null, predicate ) = null
+	 * CollectionUtils.selecting( [], predicate ) = []
+	 * CollectionUtils.selecting( [{fname="m", dept="HR"}, {fname="a", dept="IT"}], predicate ) = [1]
+	 * </pre>
+	 * @param list
+	 * @param predicate
+	 * @return {@link SelectionVector}
+	 */
+	public static <T> SelectionVector selecting( List<T> list, Predicate<T> predicate ) {
+		return isEmpty( list ) ? ( list == null ? null : SelectionVector.empty() ) 
+							   : SelectionVector.evaluate( list, predicate, false );
+	}
+	
+	/**
+	 * Evaluates the predicate parallely, chunk by chunk, and returns the matched positions as {@link SelectionVector}.
+	 * See examples : {@link #selecting(List, Predicate)}
+	 * @param list
+	 * @param predicate
+	 * @return {@link SelectionVector}
+	 */
+	public static <T> SelectionVector selectingParallely( List<T> list, Predicate<T> predicate ) {
+		return isEmpty( list ) ? ( list == null ? null : SelectionVector.empty() ) 
+							   : SelectionVector.evaluate( list, predicate, true );
+	}
+	
+	/**
+	 * Returns new {@link List} of the elements at the selected positions, in list order.
+	 * <pre>
+	 * CollectionUtils.selectedList( null, [0] ) = null
+	 * CollectionUtils.selectedList( [{fname="m"}, {fname="a"}], [1] ) = List[{fname="a"}]
+	 * </pre>
+	 * @param list
+	 * @param selection
+	 * @return {@link List}
+	 */
+	public static <T> List<T> selectedList( List<T> list, SelectionVector selection ) {
+		if( list == null )
+			return null;
+		List<T> selected = new ArrayList<>( selection.cardinality() );
+		selectedView( list, selection ).forEach( selected::add );
+		return selected;
+	}
+	
+	/**
+	 * Returns read-only {@link List} view of the elements at the selected positions without copying them.
+	 * The view is {@link RandomAccess} if the list is, and can be passed to the groupBy and summing methods
+	 * to aggregate only the selected elements.
+	 * <pre>
+	 * CollectionUtils.groupBySum( CollectionUtils.selectedView( employees, selection ), Employee::getDept, Employee::getSalary )
+	 * CollectionUtils.summingDouble( CollectionUtils.selectedView( employees, selection ), Employee::getSalary )
+	 * </pre>
+	 * @param list
+	 * @param selection
+	 * @return {@link List}
+	 */
+	public static <T> List<T> selectedView( List<T> list, SelectionVector selection ) {
+		return list == null ? null : SelectedView.of( list, selection );
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -606,11 +1288,12 @@ public class CollectionUtils
 		return ( E ) sort( collection, false, comparing( sortFunc, reverseOrder() ) );
 	}
 	
+	@SuppressWarnings("unchecked")
 	public static <T,R extends Comparable<? super R>, E extends Collection<T>> Collection<T> sort( E collection
 			, boolean parallel, Comparator<T> comparator ) {
 		if( isEmpty( collection ) )
 			return collection;
-		return collection.stream()
+		return ( Collection<T> ) collection.stream()
 						 .sorted( comparator )
 						 .collect( getCollector( collection ) );
 	}
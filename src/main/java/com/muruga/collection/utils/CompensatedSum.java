@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+/**
+ * Kahan summation of doubles, as done by {@link java.util.stream.Collectors#summingDouble} and
+ * {@link java.util.stream.Collectors#averagingDouble}, so that sums of the same elements added in the same order
+ * match theirs. Merged sums match theirs only to rounding.
+ * A sum occupies {@value #SLOTS} slots of a double array from offset: high order sum, compensation and simple sum.
+ * @author muruga
+ *
+ */
+final class CompensatedSum
+{
+
+	static final int SLOTS = 3;
+
+	private CompensatedSum() {
+	}
+
+	static void add( double[] sums, int offset, double value ) {
+		addCompensated( sums, offset, value );
+		sums[offset + 2] += value;
+	}
+
+	/**
+	 * Adds the sum at sourceOffset of source into the sum at offset of sums, leaving source unchanged.
+	 */
+	static void merge( double[] sums, int offset, double[] source, int sourceOffset ) {
+		addCompensated( sums, offset, source[sourceOffset] );
+		addCompensated( sums, offset, -source[sourceOffset + 1] );
+		sums[offset + 2] += source[sourceOffset + 2];
+	}
+
+	static double result( double[] sums, int offset ) {
+		double sum = sums[offset] - sums[offset + 1];
+		return Double.isNaN( sum ) && Double.isInfinite( sums[offset + 2] ) ? sums[offset + 2] : sum;
+	}
+
+	private static void addCompensated( double[] sums, int offset, double value ) {
+		double corrected = value - sums[offset + 1];
+		double sum = sums[offset];
+		double total = sum + corrected;
+		sums[offset + 1] = ( total - sum ) - corrected;
+		sums[offset] = total;
+	}
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Exact, first occurrence wins, key deduplicator with bounded memory, configured by {@link DistinctOptions}.
+ * <p>
+ * Keys go through an optional Bloom filter, then the in-memory key set, then the spilled runs. When the in-memory
+ * set exceeds its limit its encoded keys are sorted and written to a run file with a multi-level index on disk,
+ * of which at most {@value #INDEX_INTERVAL} keys are kept in memory. Once {@value #MERGE_FACTOR} runs of the same
+ * level exist they are k-way merged into one run of the next level, so for n spilled keys and m in-memory keys:
+ * <ul>
+ * <li>at most ({@value #MERGE_FACTOR} - 1) runs per level, i.e. O(log(n / m)) runs, are probed by a key that
+ * passes the Bloom filter and the in-memory set; each probe reads one block of at most {@value #INDEX_INTERVAL}
+ * entries per index level, i.e. O(log(n)) blocks</li>
+ * <li>every spilled key is rewritten once per level, i.e. O(log(n / m)) times</li>
+ * <li>memory is the in-memory set of m keys, at most {@value #INDEX_INTERVAL} index keys per run, and during
+ * a merge one buffered reader per merged run</li>
+ * </ul>
+ * Not thread safe.
+ * @author muruga
+ *
+ */
+final class Deduplicator<K> implements AutoCloseable
+{
+
+	static final int INDEX_INTERVAL = 64;
+
+	static final int MERGE_FACTOR = 4;
+
+	private final BloomFilter bloomFilter;
+
+	private final int maxInMemoryKeys;
+
+	private final Function<? super K, byte[]> keyEncoder;
+
+	private final Path spillDirectory;
+
+	private final Set<K> keys = new HashSet<>();
+
+	private final List<Run> runs = new ArrayList<>();
+
+	Deduplicator( DistinctOptions<K> options ) {
+		this.bloomFilter = options.expectedInsertions() > 0
+							? new BloomFilter( options.expectedInsertions(), options.falsePositiveRate() ) : null;
+		this.maxInMemoryKeys = options.maxInMemoryKeys();
+		this.keyEncoder = options.keyEncoder();
+		this.spillDirectory = options.spillDirectory();
+	}
+
+	/**
+	 * Returns true if key is seen for the first time. Otherwise, false.
+	 */
+	boolean add( K key ) {
+		byte[] encoded = keyEncoder == null ? null : keyEncoder.apply( key );
+		long hash = 0;
+		if( bloomFilter != null ) {
+			hash = encoded != null ? BloomFilter.hash( encoded ) : BloomFilter.mix( key == null ? 0 : key.hashCode() );
+			if( !bloomFilter.mightContain( hash ) ) {
+				bloomFilter.put( hash );
+				remember( key );
+				return true;
+			}
+		}
+		if( keys.contains( key ) )
+			return false;
+		for( Run run : runs ) {
+			if( run.contains( encoded ) )
+				return false;
+		}
+		if( bloomFilter != null )
+			bloomFilter.put( hash );
+		remember( key );
+		return true;
+	}
+
+	private void remember( K key ) {
+		keys.add( key );
+		if( keys.size() >= maxInMemoryKeys && keyEncoder != null )
+			spill();
+	}
+
+	private void spill() {
+		byte[][] encoded = new byte[keys.size()][];
+		int i = 0;
+		for( K key : keys )
+			encoded[i++] = keyEncoder.apply( key );
+		Arrays.sort( encoded, Deduplicator::compare );
+		try {
+			runs.add( new Run( spillDirectory, Arrays.asList( encoded ).iterator(), 0 ) );
+			keys.clear();
+			while( runs.size() >= MERGE_FACTOR && sameLevel( runs.subList( runs.size() - MERGE_FACTOR, runs.size() ) ) )
+				merge( runs.subList( runs.size() - MERGE_FACTOR, runs.size() ) );
+		}
+		catch( IOException e ) {
+			throw new UncheckedIOException( "Failed to spill keys to " + spillDirectory, e );
+		}
+	}
+
+	/**
+	 * Runs are added in non-increasing level order, so runs of the same level are at the tail.
+	 */
+	private static boolean sameLevel( List<Run> tail ) {
+		for( Run run : tail ) {
+			if( run.level != tail.get( 0 ).level )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces the runs by a single run of the next level, merging their keys in order.
+	 */
+	private void merge( List<Run> merged ) throws IOException {
+		PriorityQueue<Cursor> heads = new PriorityQueue<>( merged.size(), ( a, b ) -> compare( a.head, b.head ) );
+		List<Cursor> cursors = new ArrayList<>( merged.size() );
+		Run run;
+		try {
+			for( Run source : merged ) {
+				Cursor cursor = new Cursor( source.file );
+				cursors.add( cursor );
+				if( cursor.advance() )
+					heads.add( cursor );
+			}
+			Iterator<byte[]> sorted = new Iterator<byte[]>() {
+
+				@Override
+				public boolean hasNext() {
+					return !heads.isEmpty();
+				}
+
+				@Override
+				public byte[] next() {
+					Cursor cursor = heads.poll();
+					byte[] key = cursor.head;
+					try {
+						if( cursor.advance() )
+							heads.add( cursor );
+					}
+					catch( IOException e ) {
+						throw new UncheckedIOException( "Failed to read spill file", e );
+					}
+					return key;
+				}
+			};
+			run = new Run( spillDirectory, sorted, merged.get( 0 ).level + 1 );
+		}
+		finally {
+			for( Cursor cursor : cursors )
+				cursor.in.close();
+		}
+		for( Run source : merged )
+			source.close();
+		merged.clear();
+		runs.add( run );
+	}
+
+	/**
+	 * Deletes the spilled runs.
+	 */
+	@Override
+	public void close() {
+		UncheckedIOException failure = null;
+		for( Run run : runs ) {
+			try {
+				run.close();
+			}
+			catch( IOException e ) {
+				failure = new UncheckedIOException( "Failed to delete spill file", e );
+			}
+		}
+		runs.clear();
+		keys.clear();
+		if( failure != null )
+			throw failure;
+	}
+
+	int spilledRuns() {
+		return runs.size();
+	}
+
+	/**
+	 * Unsigned lexicographic order of encoded keys.
+	 */
+	static int compare( byte[] a, byte[] b ) {
+		int length = Math.min( a.length, b.length );
+		for( int i = 0; i < length; i++ ) {
+			int diff = ( a[i] & 0xff ) - ( b[i] & 0xff );
+			if( diff != 0 )
+				return diff;
+		}
+		return a.length - b.length;
+	}
+
+	/**
+	 * Sequential reader of the keys of a run file, positioned on its head key.
+	 */
+	private static final class Cursor {
+
+		private final DataInputStream in;
+
+		private byte[] head;
+
+		Cursor( Path file ) throws IOException {
+			in = new DataInputStream( new BufferedInputStream( Files.newInputStream( file ) ) );
+		}
+
+		boolean advance() throws IOException {
+			int length;
+			try {
+				length = in.readInt();
+			}
+			catch( EOFException e ) {
+				head = null;
+				return false;
+			}
+			head = new byte[length];
+			in.readFully( head );
+			return true;
+		}
+	}
+
+	/**
+	 * Sorted file of length prefixed encoded keys with a static multi-level index. Keys are grouped in blocks of
+	 * {@value #INDEX_INTERVAL}; index level i + 1 is a file of length prefixed first keys and byte ranges of the
+	 * blocks of level i, grouped in blocks the same way. Levels are added until the top one has at most
+	 * {@value #INDEX_INTERVAL} blocks, whose first keys and ranges alone are kept in memory.
+	 */
+	private static final class Run {
+
+		private final Path file;
+
+		private final int level;
+
+		private final List<Path> files;
+
+		private final RandomAccessFile[] readers;
+
+		private final LevelWriter top;
+
+		Run( Path directory, Iterator<byte[]> sorted, int level ) throws IOException {
+			this.level = level;
+			this.files = new ArrayList<>();
+			LevelWriter keys = new LevelWriter( directory, files, false );
+			this.file = keys.file;
+			List<RandomAccessFile> opened = new ArrayList<>();
+			try {
+				while( sorted.hasNext() )
+					keys.add( sorted.next(), 0, 0 );
+				LevelWriter writer = keys.finish();
+				while( writer.parent != null )
+					writer = writer.parent;
+				top = writer;
+				for( Path levelFile : files )
+					opened.add( new RandomAccessFile( levelFile.toFile(), "r" ) );
+			}
+			catch( IOException | RuntimeException e ) {
+				for( RandomAccessFile reader : opened )
+					reader.close();
+				keys.abort();
+				for( Path levelFile : files )
+					Files.deleteIfExists( levelFile );
+				throw e;
+			}
+			readers = opened.toArray( new RandomAccessFile[opened.size()] );
+		}
+
+		boolean contains( byte[] key ) {
+			int block = -1;
+			int low = 0, high = top.blocks - 1;
+			while( low <= high ) {
+				int mid = low + high >>> 1;
+				int compared = compare( top.blockKeys[mid], key );
+				if( compared == 0 )
+					return true;
+				if( compared < 0 ) {
+					block = mid;
+					low = mid + 1;
+				}
+				else
+					high = mid - 1;
+			}
+			if( block < 0 )
+				return false;
+			long start = top.blockStarts[block], end = top.blockEnds[block];
+			for( int i = readers.length - 1; i >= 0; i-- ) {
+				ByteBuffer buffer = read( i, start, end );
+				long childStart = -1, childEnd = -1;
+				while( buffer.hasRemaining() ) {
+					byte[] entry = new byte[buffer.getInt()];
+					buffer.get( entry );
+					int compared = compare( entry, key );
+					if( compared == 0 )
+						return true;
+					if( compared > 0 )
+						break;
+					if( i > 0 ) {
+						childStart = buffer.getLong();
+						childEnd = buffer.getLong();
+					}
+				}
+				if( i == 0 || childStart < 0 )
+					return false;
+				start = childStart;
+				end = childEnd;
+			}
+			return false;
+		}
+
+		private ByteBuffer read( int levelIndex, long start, long end ) {
+			byte[] bytes = new byte[( int ) ( end - start )];
+			try {
+				readers[levelIndex].seek( start );
+				readers[levelIndex].readFully( bytes );
+			}
+			catch( IOException e ) {
+				throw new UncheckedIOException( "Failed to read spill file " + files.get( levelIndex ), e );
+			}
+			return ByteBuffer.wrap( bytes );
+		}
+
+		void close() throws IOException {
+			IOException failure = null;
+			for( RandomAccessFile reader : readers ) {
+				try {
+					reader.close();
+				}
+				catch( IOException e ) {
+					failure = e;
+				}
+			}
+			for( Path levelFile : files )
+				Files.deleteIfExists( levelFile );
+			if( failure != null )
+				throw failure;
+		}
+	}
+
+	/**
+	 * Writer of one level of a {@link Run}. Keeps the first keys and byte ranges of at most
+	 * {@value #INDEX_INTERVAL} blocks; beyond that it hands them to the writer of the next index level.
+	 */
+	private static final class LevelWriter {
+
+		private final Path directory;
+
+		private final List<Path> files;
+
+		private final boolean index;
+
+		private final Path file;
+
+		private final DataOutputStream out;
+
+		private long offset;
+
+		private int entries;
+
+		private byte[] blockKey;
+
+		private long blockStart;
+
+		private final byte[][] blockKeys = new byte[INDEX_INTERVAL][];
+
+		private final long[] blockStarts = new long[INDEX_INTERVAL];
+
+		private final long[] blockEnds = new long[INDEX_INTERVAL];
+
+		private int blocks;
+
+		private LevelWriter parent;
+
+		LevelWriter( Path directory, List<Path> files, boolean index ) throws IOException {
+			this.directory = directory;
+			this.files = files;
+			this.index = index;
+			this.file = Files.createTempFile( directory, "distinct-", index ? ".idx" : ".run" );
+			files.add( file );
+			this.out = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( file ) ) );
+		}
+
+		void add( byte[] key, long start, long end ) throws IOException {
+			if( entries % INDEX_INTERVAL == 0 ) {
+				if( entries > 0 )
+					closeBlock();
+				blockKey = key;
+				blockStart = offset;
+			}
+			out.writeInt( key.length );
+			out.write( key );
+			offset += Integer.BYTES + key.length;
+			if( index ) {
+				out.writeLong( start );
+				out.writeLong( end );
+				offset += 2 * Long.BYTES;
+			}
+			entries++;
+		}
+
+		private void closeBlock() throws IOException {
+			if( parent == null && blocks == INDEX_INTERVAL ) {
+				parent = new LevelWriter( directory, files, true );
+				for( int i = 0; i < blocks; i++ )
+					parent.add( blockKeys[i], blockStarts[i], blockEnds[i] );
+				Arrays.fill( blockKeys, null );
+				blocks = 0;
+			}
+			if( parent != null ) {
+				parent.add( blockKey, blockStart, offset );
+			}
+			else {
+				blockKeys[blocks] = blockKey;
+				blockStarts[blocks] = blockStart;
+				blockEnds[blocks++] = offset;
+			}
+		}
+
+		/**
+		 * Closes this level and the levels above it, returning this writer.
+		 */
+		LevelWriter finish() throws IOException {
+			if( entries > 0 )
+				closeBlock();
+			out.close();
+			if( parent != null )
+				parent.finish();
+			return this;
+		}
+
+		void abort() throws IOException {
+			try {
+				out.close();
+			}
+			finally {
+				if( parent != null )
+					parent.abort();
+			}
+		}
+	}
+}
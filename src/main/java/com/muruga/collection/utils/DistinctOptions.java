@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Function;
+
+/**
+ * Immutable options of {@link CollectionUtils#distinctStream(java.util.stream.Stream, Function, DistinctOptions)}.
+ * <p>
+ * By default every distinct key is kept in memory. With {@link #withBloomFilter(long, double)} a Bloom filter
+ * answers most first occurrences without looking up the exact key stores. With {@link #withSpill(int, Function)}
+ * at most maxInMemoryKeys keys are kept in memory; older keys are spilled to sorted run files and looked up there,
+ * so duplicates are still removed exactly.
+ * <p>
+ * Heap used for n distinct keys is bounded by:
+ * <ul>
+ * <li>the Bloom filter: about 1.44 * log2(1 / falsePositiveRate) bits per expected insertion, e.g. 1.2 bytes
+ * per key at 0.01, allocated upfront</li>
+ * <li>at most maxInMemoryKeys keys, plus their encoded copies while they are sorted and spilled</li>
+ * <li>64 index keys per run file, and O(log(n / maxInMemoryKeys)) run files, since runs are merged in tiers;
+ * while runs are merged, one buffered reader per merged run</li>
+ * </ul>
+ * Without spilling every distinct key is kept in memory. A key that passes the Bloom filter and is not in memory
+ * costs one read of at most 64 keys per index level of every run.
+ * <pre>
+ * {@code DistinctOptions<String> options = DistinctOptions.<String>inMemory()
+ * 		.withBloomFilter( 500_000_000L, 0.01 )
+ * 		.withSpill( 10_000_000, key -> key.getBytes( StandardCharsets.UTF_8 ) ); }
+ * </pre>
+ * @author muruga
+ *
+ */
+public final class DistinctOptions<K>
+{
+
+	private final long expectedInsertions;
+
+	private final double falsePositiveRate;
+
+	private final int maxInMemoryKeys;
+
+	private final Function<? super K, byte[]> keyEncoder;
+
+	private final Path spillDirectory;
+
+	private DistinctOptions( long expectedInsertions, double falsePositiveRate, int maxInMemoryKeys
+			, Function<? super K, byte[]> keyEncoder, Path spillDirectory ) {
+		this.expectedInsertions = expectedInsertions;
+		this.falsePositiveRate = falsePositiveRate;
+		this.maxInMemoryKeys = maxInMemoryKeys;
+		this.keyEncoder = keyEncoder;
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Returns options keeping every distinct key in memory, without Bloom filter.
+	 * @return {@link DistinctOptions}
+	 */
+	public static <K> DistinctOptions<K> inMemory() {
+		return new DistinctOptions<>( 0, 0, Integer.MAX_VALUE, null, Paths.get( System.getProperty( "java.io.tmpdir" ) ) );
+	}
+
+	/**
+	 * Returns copy of these options with a Bloom filter front stage sized for the expected number of distinct keys.
+	 * @param expectedInsertions - expected number of distinct keys
+	 * @param falsePositiveRate - between 0 and 1, exclusive
+	 * @return {@link DistinctOptions}
+	 */
+	public DistinctOptions<K> withBloomFilter( long expectedInsertions, double falsePositiveRate ) {
+		if( expectedInsertions < 1 )
+			throw new IllegalArgumentException( "Expected insertions must be positive: " + expectedInsertions );
+		if( !( falsePositiveRate > 0 && falsePositiveRate < 1 ) )
+			throw new IllegalArgumentException( "False positive rate must be between 0 and 1: " + falsePositiveRate );
+		return new DistinctOptions<>( expectedInsertions, falsePositiveRate, maxInMemoryKeys, keyEncoder, spillDirectory );
+	}
+
+	/**
+	 * Returns copy of these options spilling keys to disk once more than maxInMemoryKeys are held in memory.
+	 * The encoder must return equal bytes exactly for equal keys.
+	 * @param maxInMemoryKeys
+	 * @param keyEncoder
+	 * @return {@link DistinctOptions}
+	 */
+	public DistinctOptions<K> withSpill( int maxInMemoryKeys, Function<? super K, byte[]> keyEncoder ) {
+		if( maxInMemoryKeys < 1 )
+			throw new IllegalArgumentException( "Max in memory keys must be positive: " + maxInMemoryKeys );
+		if( keyEncoder == null )
+			throw new IllegalArgumentException( "Key encoder is required to spill keys" );
+		return new DistinctOptions<>( expectedInsertions, falsePositiveRate, maxInMemoryKeys, keyEncoder, spillDirectory );
+	}
+
+	/**
+	 * Returns copy of these options writing spill files into the directory. Default is java.io.tmpdir.
+	 * @param spillDirectory
+	 * @return {@link DistinctOptions}
+	 */
+	public DistinctOptions<K> withSpillDirectory( Path spillDirectory ) {
+		return new DistinctOptions<>( expectedInsertions, falsePositiveRate, maxInMemoryKeys, keyEncoder, spillDirectory );
+	}
+
+	long expectedInsertions() {
+		return expectedInsertions;
+	}
+
+	double falsePositiveRate() {
+		return falsePositiveRate;
+	}
+
+	int maxInMemoryKeys() {
+		return maxInMemoryKeys;
+	}
+
+	Function<? super K, byte[]> keyEncoder() {
+		return keyEncoder;
+	}
+
+	Path spillDirectory() {
+		return spillDirectory;
+	}
+}
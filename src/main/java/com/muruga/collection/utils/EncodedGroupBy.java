@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Group by on dictionary encoded keys: elements are aggregated into array slots indexed by the dense ids of
+ * {@link KeyEncoder}, and keys are decoded only when the result map is built.
+ * @author muruga
+ *
+ */
+final class EncodedGroupBy
+{
+
+	private EncodedGroupBy() {
+	}
+
+	static <T,V> Map<GroupingKey,V> groupBy( Collection<T> collection, List<? extends Function<? super T,?>> keyFuncs
+			, Aggregation<T,V> aggregation ) {
+		if( collection == null )
+			return null;
+		KeyEncoder<T> encoder = KeyEncoder.of( keyFuncs );
+		int capacity = 0;
+		for( T val : collection ) {
+			int id = encoder.encode( val );
+			if( id == capacity ) {
+				capacity = Math.max( 16, capacity * 2 );
+				aggregation.grow( capacity );
+			}
+			aggregation.accept( id, val );
+		}
+		Map<GroupingKey,V> result = new HashMap<>( encoder.size() * 4 / 3 + 1 );
+		for( int id = 0; id < encoder.size(); id++ )
+			result.put( encoder.decode( id ), aggregation.get( id ) );
+		return result;
+	}
+
+	/**
+	 * Aggregate of each group held in array slots indexed by group id.
+	 */
+	static abstract class Aggregation<T,V> {
+
+		abstract void grow( int capacity );
+
+		abstract void accept( int id, T val );
+
+		abstract V get( int id );
+	}
+
+	static <T> Aggregation<T,Long> count() {
+		return new Aggregation<T,Long>() {
+			long[] counts = new long[0];
+
+			@Override
+			void grow( int capacity ) {
+				counts = Arrays.copyOf( counts, capacity );
+			}
+
+			@Override
+			void accept( int id, T val ) {
+				counts[id]++;
+			}
+
+			@Override
+			Long get( int id ) {
+				return counts[id];
+			}
+		};
+	}
+
+	static <T> Aggregation<T,Integer> sum( ToIntFunction<T> sumFunc ) {
+		return new Aggregation<T,Integer>() {
+			int[] sums = new int[0];
+
+			@Override
+			void grow( int capacity ) {
+				sums = Arrays.copyOf( sums, capacity );
+			}
+
+			@Override
+			void accept( int id, T val ) {
+				sums[id] += sumFunc.applyAsInt( val );
+			}
+
+			@Override
+			Integer get( int id ) {
+				return sums[id];
+			}
+		};
+	}
+
+	static <T> Aggregation<T,Long> sum( ToLongFunction<T> sumFunc ) {
+		return new Aggregation<T,Long>() {
+			long[] sums = new long[0];
+
+			@Override
+			void grow( int capacity ) {
+				sums = Arrays.copyOf( sums, capacity );
+			}
+
+			@Override
+			void accept( int id, T val ) {
+				sums[id] += sumFunc.applyAsLong( val );
+			}
+
+			@Override
+			Long get( int id ) {
+				return sums[id];
+			}
+		};
+	}
+
+	/**
+	 * Sums with the compensated summation of {@link java.util.stream.Collectors#summingDouble}.
+	 */
+	static <T> Aggregation<T,Double> sum( ToDoubleFunction<T> sumFunc ) {
+		return new Aggregation<T,Double>() {
+			double[] sums = new double[0];
+
+			@Override
+			void grow( int capacity ) {
+				sums = Arrays.copyOf( sums, capacity * CompensatedSum.SLOTS );
+			}
+
+			@Override
+			void accept( int id, T val ) {
+				CompensatedSum.add( sums, id * CompensatedSum.SLOTS, sumFunc.applyAsDouble( val ) );
+			}
+
+			@Override
+			Double get( int id ) {
+				return CompensatedSum.result( sums, id * CompensatedSum.SLOTS );
+			}
+		};
+	}
+
+	/**
+	 * Averages with the compensated summation of {@link java.util.stream.Collectors#averagingDouble}.
+	 */
+	static <T> Aggregation<T,Double> avg( ToDoubleFunction<T> avgFunc ) {
+		return new Aggregation<T,Double>() {
+			double[] sums = new double[0];
+			long[] counts = new long[0];
+
+			@Override
+			void grow( int capacity ) {
+				sums = Arrays.copyOf( sums, capacity * CompensatedSum.SLOTS );
+				counts = Arrays.copyOf( counts, capacity );
+			}
+
+			@Override
+			void accept( int id, T val ) {
+				CompensatedSum.add( sums, id * CompensatedSum.SLOTS, avgFunc.applyAsDouble( val ) );
+				counts[id]++;
+			}
+
+			@Override
+			Double get( int id ) {
+				return CompensatedSum.result( sums, id * CompensatedSum.SLOTS ) / counts[id];
+			}
+		};
+	}
+
+	/**
+	 * Keeps the smallest value of each group when min is true. Otherwise, the largest.
+	 */
+	static <T,V extends Comparable<? super V>> Aggregation<T,V> extreme( Function<T,V> func, boolean min ) {
+		return new Aggregation<T,V>() {
+			Object[] extremes = new Object[0];
+			boolean[] present = new boolean[0];
+
+			@Override
+			void grow( int capacity ) {
+				extremes = Arrays.copyOf( extremes, capacity );
+				present = Arrays.copyOf( present, capacity );
+			}
+
+			@Override
+			void accept( int id, T val ) {
+				V value = func.apply( val );
+				int compared = present[id] ? value.compareTo( get( id ) ) : 0;
+				if( !present[id] || ( min ? compared < 0 : compared > 0 ) ) {
+					extremes[id] = value;
+					present[id] = true;
+				}
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			V get( int id ) {
+				return ( V ) extremes[id];
+			}
+		};
+	}
+
+	static <T> Aggregation<T,String> stringAgg( Function<T,String> aggFunc, String delimiter ) {
+		return new Aggregation<T,String>() {
+			StringBuilder[] builders = new StringBuilder[0];
+
+			@Override
+			void grow( int capacity ) {
+				builders = Arrays.copyOf( builders, capacity );
+			}
+
+			@Override
+			void accept( int id, T val ) {
+				if( builders[id] == null )
+					builders[id] = new StringBuilder();
+				else
+					builders[id].append( delimiter );
+				builders[id].append( aggFunc.apply( val ) );
+			}
+
+			@Override
+			String get( int id ) {
+				return builders[id].toString();
+			}
+		};
+	}
+}
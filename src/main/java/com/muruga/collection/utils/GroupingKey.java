@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Key of one group in a ROLLUP, CUBE or grouping sets result. Holds one value per key function;
+ * key functions that are not part of the group's grouping set hold {@link #ALL}.
+ * <pre>
+ * GroupingKey.of( "IT", "k" )                  = (IT, k)       - group of dept and lname
+ * GroupingKey.of( "IT", GroupingKey.ALL )      = (IT, ALL)     - subtotal of dept
+ * GroupingKey.of( GroupingKey.ALL, GroupingKey.ALL ) = (ALL, ALL) - grand total
+ * </pre>
+ * @author muruga
+ *
+ */
+public final class GroupingKey
+{
+
+	/**
+	 * Value of a key function rolled up in the group.
+	 */
+	public static final Object ALL = new Object() {
+		@Override
+		public String toString() {
+			return "ALL";
+		}
+	};
+
+	private final Object[] values;
+
+	private final int hash;
+
+	private GroupingKey( Object[] values ) {
+		this.values = values;
+		this.hash = Arrays.hashCode( values );
+	}
+
+	/**
+	 * Returns key of the given values. Use {@link #ALL} for rolled up key functions.
+	 * @param values - one value per key function
+	 * @return {@link GroupingKey}
+	 */
+	public static GroupingKey of( Object... values ) {
+		return new GroupingKey( values.clone() );
+	}
+
+	/**
+	 * Returns key backed by values, without copying them.
+	 */
+	static GroupingKey wrap( Object[] values ) {
+		return new GroupingKey( values );
+	}
+
+	/**
+	 * Returns this key with the key functions outside mask rolled up.
+	 */
+	GroupingKey project( int mask ) {
+		return project( values, mask );
+	}
+
+	/**
+	 * Returns key of values with the key functions outside mask rolled up.
+	 */
+	static GroupingKey project( Object[] values, int mask ) {
+		Object[] grouped = new Object[values.length];
+		for( int i = 0; i < values.length; i++ )
+			grouped[i] = ( mask & 1 << i ) != 0 ? values[i] : ALL;
+		return new GroupingKey( grouped );
+	}
+
+	/**
+	 * Returns value of the key function at index, or {@link #ALL} if it is rolled up.
+	 * @param index
+	 * @return {@link Object}
+	 */
+	public Object get( int index ) {
+		return values[index];
+	}
+
+	/**
+	 * Returns true if the key function at index is part of the group. Otherwise, false.
+	 * @param index
+	 * @return boolean
+	 */
+	public boolean isGrouped( int index ) {
+		return values[index] != ALL;
+	}
+
+	/**
+	 * Returns number of key functions.
+	 * @return int
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	/**
+	 * Returns values of the key functions, {@link #ALL} for the rolled up ones.
+	 * @return {@link List}
+	 */
+	public List<Object> values() {
+		return Collections.unmodifiableList( Arrays.asList( values ) );
+	}
+
+	@Override
+	public boolean equals( Object obj ) {
+		if( this == obj )
+			return true;
+		if( !( obj instanceof GroupingKey ) )
+			return false;
+		GroupingKey other = ( GroupingKey ) obj;
+		return hash == other.hash && Arrays.equals( values, other.values );
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder( "(" );
+		for( int i = 0; i < values.length; i++ )
+			builder.append( i == 0 ? "" : ", " ).append( values[i] );
+		return builder.append( ")" ).toString();
+	}
+}
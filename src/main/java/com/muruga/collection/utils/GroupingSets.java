@@ -0,0 +1,230 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import static java.util.stream.Collectors.groupingBy;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Multi-level grouping behind {@link CollectionUtils#groupByRollup(Collection, List, Collector)},
+ * {@link CollectionUtils#groupByCube(Collection, List, Collector)},
+ * {@link CollectionUtils#groupByGroupingSets(Collection, List, Collector, int[][])} and
+ * {@link CollectionUtils#groupByNested(Collection, List, Collector)}.
+ * <p>
+ * The collection is scanned once. With a {@link Collector} every element is accumulated into each grouping set it
+ * belongs to, since a collector's combiner may change either of its arguments. With a {@link RollupAggregation} the
+ * scan only fills the finest grouping set, and every coarser grouping set is derived from the smallest already
+ * computed finer one by merging its accumulators.
+ * @author muruga
+ *
+ */
+final class GroupingSets
+{
+
+	private GroupingSets() {
+	}
+
+	/**
+	 * Returns masks of ROLLUP( keys ): ( k0..kn-1 ), ( k0..kn-2 ), ..., ().
+	 */
+	static int[] rollup( int keys ) {
+		checkKeys( keys );
+		int[] masks = new int[keys + 1];
+		for( int i = 0; i <= keys; i++ )
+			masks[i] = ( 1 << keys - i ) - 1;
+		return masks;
+	}
+
+	/**
+	 * Returns masks of CUBE( keys ): every subset of the key functions.
+	 */
+	static int[] cube( int keys ) {
+		checkKeys( keys );
+		if( keys > 16 )
+			throw new IllegalArgumentException( "CUBE supports at most 16 key functions: " + keys );
+		int[] masks = new int[1 << keys];
+		for( int mask = 0; mask < masks.length; mask++ )
+			masks[mask] = masks.length - 1 - mask;
+		return masks;
+	}
+
+	/**
+	 * Returns masks of the grouping sets given as key function indexes.
+	 */
+	static int[] masks( int keys, int[][] groupingSets ) {
+		checkKeys( keys );
+		int[] masks = new int[groupingSets.length];
+		for( int i = 0; i < groupingSets.length; i++ ) {
+			for( int index : groupingSets[i] ) {
+				if( index < 0 || index >= keys )
+					throw new IllegalArgumentException( "No key function at index " + index );
+				masks[i] |= 1 << index;
+			}
+		}
+		return masks;
+	}
+
+	private static void checkKeys( int keys ) {
+		if( keys < 1 || keys > 30 )
+			throw new IllegalArgumentException( "Expected 1 to 30 key functions: " + keys );
+	}
+
+	/**
+	 * Returns groups of the grouping sets of masks, accumulating every element into every grouping set during
+	 * the single scan. Works for any collector, as accumulators are only combined with partial results of the
+	 * same group from other threads.
+	 */
+	static <T,A,V> Map<GroupingKey,V> groupingSets( Collection<T> collection, List<? extends Function<? super T,?>> keyFuncs
+			, Collector<T,A,V> collector, int[] masks, boolean parallel ) {
+		if( collection == null )
+			return null;
+		int finest = union( masks );
+		int[] distinct = Arrays.stream( masks ).distinct().toArray();
+		Supplier<A> supplier = collector.supplier();
+		BiConsumer<A,T> accumulator = collector.accumulator();
+		BinaryOperator<A> combiner = collector.combiner();
+		Collector<T, Map<GroupingKey,A>, Map<GroupingKey,A>> everySet = Collector.of( HashMap::new
+				, ( groups, val ) -> {
+					Object[] values = values( keyFuncs, val, finest );
+					for( int mask : distinct )
+						accumulator.accept( groups.computeIfAbsent( GroupingKey.project( values, mask ), key -> supplier.get() ), val );
+				}
+				, ( left, right ) -> {
+					right.forEach( ( key, acc ) -> left.merge( key, acc, combiner ) );
+					return left;
+				} );
+		Map<GroupingKey,V> result = new HashMap<>();
+		CollectionUtils.collect( collection, everySet, new HashMap<>(), parallel )
+					   .forEach( ( key, acc ) -> result.put( key, collector.finisher().apply( acc ) ) );
+		return result;
+	}
+
+	/**
+	 * Returns groups of the grouping sets of masks, scanning the collection once into the finest grouping set and
+	 * deriving every coarser grouping set from the smallest already computed finer one.
+	 */
+	static <T,V> Map<GroupingKey,V> groupingSets( Collection<T> collection, List<? extends Function<? super T,?>> keyFuncs
+			, RollupAggregation<T,V> aggregation, int[] masks, boolean parallel ) {
+		return derived( collection, keyFuncs, aggregation.collector(), masks, parallel );
+	}
+
+	/**
+	 * Requires a collector whose combiner folds the right argument into the left one without changing the right one,
+	 * as the accumulators of a finer level are combined into every coarser level derived from it.
+	 */
+	private static <T,A,V> Map<GroupingKey,V> derived( Collection<T> collection, List<? extends Function<? super T,?>> keyFuncs
+			, Collector<T,A,V> collector, int[] masks, boolean parallel ) {
+		if( collection == null )
+			return null;
+		int finest = union( masks );
+		Map<Integer, Map<GroupingKey,A>> levels = new HashMap<>();
+		levels.put( finest, scan( collection, keyFuncs, collector, finest, parallel ) );
+		int[] ordered = Arrays.stream( masks ).distinct().boxed()
+							  .sorted( ( m1, m2 ) -> Integer.bitCount( m2 ) - Integer.bitCount( m1 ) )
+							  .mapToInt( mask -> mask ).toArray();
+		for( int mask : ordered ) {
+			if( !levels.containsKey( mask ) )
+				levels.put( mask, rollUp( levels.get( finerLevel( levels, mask ) ), mask, collector ) );
+		}
+		Map<GroupingKey,V> result = new HashMap<>();
+		for( int mask : ordered )
+			levels.get( mask ).forEach( ( key, acc ) -> result.put( key, collector.finisher().apply( acc ) ) );
+		return result;
+	}
+
+	private static int union( int[] masks ) {
+		int union = 0;
+		for( int mask : masks )
+			union |= mask;
+		return union;
+	}
+
+	/**
+	 * Returns values of the key functions in mask, {@link GroupingKey#ALL} for the others.
+	 */
+	private static <T> Object[] values( List<? extends Function<? super T,?>> keyFuncs, T val, int mask ) {
+		Object[] values = new Object[keyFuncs.size()];
+		for( int i = 0; i < values.length; i++ )
+			values[i] = ( mask & 1 << i ) != 0 ? keyFuncs.get( i ).apply( val ) : GroupingKey.ALL;
+		return values;
+	}
+
+	static <T,A,V> Map<Object,?> nested( Collection<T> collection, List<? extends Function<? super T,?>> keyFuncs
+			, Collector<T,A,V> collector, boolean parallel ) {
+		checkKeys( keyFuncs.size() );
+		if( collection == null )
+			return null;
+		Map<Object,Object> result = new HashMap<>();
+		scan( collection, keyFuncs, collector, ( 1 << keyFuncs.size() ) - 1, parallel ).forEach( ( key, acc ) -> {
+			Map<Object,Object> level = result;
+			for( int i = 0; i < key.size() - 1; i++ ) {
+				@SuppressWarnings("unchecked")
+				Map<Object,Object> next = ( Map<Object,Object> ) level.computeIfAbsent( key.get( i ), k -> new HashMap<>() );
+				level = next;
+			}
+			level.put( key.get( key.size() - 1 ), collector.finisher().apply( acc ) );
+		} );
+		return result;
+	}
+
+	/**
+	 * Single pass over the collection accumulating, without finishing, the groups of mask.
+	 */
+	private static <T,A,V> Map<GroupingKey,A> scan( Collection<T> collection, List<? extends Function<? super T,?>> keyFuncs
+			, Collector<T,A,V> collector, int mask, boolean parallel ) {
+		Function<T,GroupingKey> keyFunc = val -> GroupingKey.wrap( values( keyFuncs, val, mask ) );
+		Collector<T,A,A> unfinished = Collector.of( collector.supplier(), collector.accumulator(), collector.combiner() );
+		return CollectionUtils.collect( collection, groupingBy( keyFunc, unfinished ), new HashMap<>(), parallel );
+	}
+
+	/**
+	 * Returns the computed level with fewest groups that can be rolled up to mask.
+	 */
+	private static <A> int finerLevel( Map<Integer, Map<GroupingKey,A>> levels, int mask ) {
+		int finer = -1;
+		for( Map.Entry<Integer, Map<GroupingKey,A>> level : levels.entrySet() ) {
+			if( ( level.getKey() & mask ) == mask
+					&& ( finer == -1 || level.getValue().size() < levels.get( finer ).size() ) )
+				finer = level.getKey();
+		}
+		return finer;
+	}
+
+	/**
+	 * Merges the accumulators of the finer groups into fresh accumulators of their mask projections,
+	 * leaving the finer accumulators unchanged.
+	 */
+	private static <T,A,V> Map<GroupingKey,A> rollUp( Map<GroupingKey,A> finer, int mask, Collector<T,A,V> collector ) {
+		Supplier<A> supplier = collector.supplier();
+		BinaryOperator<A> combiner = collector.combiner();
+		Map<GroupingKey,A> coarser = new HashMap<>();
+		finer.forEach( ( key, acc ) ->
+			coarser.compute( key.project( mask ), ( k, merged ) -> combiner.apply( merged == null ? supplier.get() : merged, acc ) ) );
+		return coarser;
+	}
+}
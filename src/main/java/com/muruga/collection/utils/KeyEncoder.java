@@ -0,0 +1,206 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Dictionary encoder of group keys into dense int ids 0, 1, 2, ... in order of first occurrence.
+ * <p>
+ * Each key function has its own dictionary of values, so composite keys are never concatenated or wrapped:
+ * the value ids of the key functions are folded pairwise into a composite id through primitive long to int tables.
+ * Keys are decoded back into {@link GroupingKey} only on {@link #decode(int)}. Not thread safe.
+ * <pre>
+ * {@code KeyEncoder<Employee> encoder = KeyEncoder.of( asList( Employee::getDept, Employee::getLname ) ) }
+ * encoder.encode( {fname="m", lname="k", dept="IT"} ) = 0
+ * encoder.encode( {fname="i", lname="k", dept="HR"} ) = 1
+ * encoder.encode( {fname="a", lname="k", dept="IT"} ) = 0
+ * encoder.decode( 1 ) = (HR, k)
+ * </pre>
+ * @author muruga
+ *
+ */
+public final class KeyEncoder<T>
+{
+
+	private final Function<? super T,?>[] keyFuncs;
+
+	private final List<Map<Object,Integer>> dictionaries;
+
+	private final List<List<Object>> values;
+
+	private final PairTable[] pairs;
+
+	@SuppressWarnings({"unchecked","rawtypes"})
+	private KeyEncoder( List<? extends Function<? super T,?>> keyFuncs ) {
+		if( keyFuncs.isEmpty() )
+			throw new IllegalArgumentException( "Expected at least one key function" );
+		this.keyFuncs = keyFuncs.toArray( new Function[keyFuncs.size()] );
+		this.dictionaries = new ArrayList<>( keyFuncs.size() );
+		this.values = new ArrayList<>( keyFuncs.size() );
+		for( int i = 0; i < keyFuncs.size(); i++ ) {
+			dictionaries.add( new HashMap<>() );
+			values.add( new ArrayList<>() );
+		}
+		this.pairs = new PairTable[keyFuncs.size() - 1];
+		for( int i = 0; i < pairs.length; i++ )
+			pairs[i] = new PairTable();
+	}
+
+	/**
+	 * Returns encoder of the composite key made of the key functions.
+	 * @param keyFuncs
+	 * @return {@link KeyEncoder}
+	 */
+	public static <T> KeyEncoder<T> of( List<? extends Function<? super T,?>> keyFuncs ) {
+		return new KeyEncoder<>( keyFuncs );
+	}
+
+	/**
+	 * Returns id of the element's key, assigning the next id if the key was not seen before.
+	 * @param element
+	 * @return int
+	 */
+	public int encode( T element ) {
+		int id = encode( 0, keyFuncs[0].apply( element ) );
+		for( int i = 1; i < keyFuncs.length; i++ )
+			id = pairs[i - 1].encode( id, encode( i, keyFuncs[i].apply( element ) ) );
+		return id;
+	}
+
+	private int encode( int index, Object value ) {
+		Integer id = dictionaries.get( index ).get( value );
+		if( id == null ) {
+			List<Object> decoded = values.get( index );
+			id = decoded.size();
+			dictionaries.get( index ).put( value, id );
+			decoded.add( value );
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the key of id.
+	 * @param id
+	 * @return {@link GroupingKey}
+	 */
+	public GroupingKey decode( int id ) {
+		if( id < 0 || id >= size() )
+			throw new IndexOutOfBoundsException( "Id: " + id + ", Size: " + size() );
+		Object[] key = new Object[keyFuncs.length];
+		for( int i = keyFuncs.length - 1; i > 0; i-- ) {
+			key[i] = values.get( i ).get( pairs[i - 1].right( id ) );
+			id = pairs[i - 1].left( id );
+		}
+		key[0] = values.get( 0 ).get( id );
+		return GroupingKey.wrap( key );
+	}
+
+	/**
+	 * Returns number of distinct keys encoded so far.
+	 * @return int
+	 */
+	public int size() {
+		return pairs.length == 0 ? values.get( 0 ).size() : pairs[pairs.length - 1].size();
+	}
+
+	/**
+	 * Open addressing table of ( left id, right id ) pairs to dense ids.
+	 */
+	private static final class PairTable {
+
+		private static final long FREE = -1L;
+
+		private long[] keys = newKeys( 16 );
+
+		private int[] ids = new int[16];
+
+		private int[] lefts = new int[16];
+
+		private int[] rights = new int[16];
+
+		private int size;
+
+		int encode( int left, int right ) {
+			long key = ( long ) left << 32 | right & 0xFFFFFFFFL;
+			int mask = keys.length - 1;
+			int slot = hash( key ) & mask;
+			while( keys[slot] != FREE ) {
+				if( keys[slot] == key )
+					return ids[slot];
+				slot = slot + 1 & mask;
+			}
+			if( size == lefts.length ) {
+				lefts = Arrays.copyOf( lefts, size * 2 );
+				rights = Arrays.copyOf( rights, size * 2 );
+			}
+			lefts[size] = left;
+			rights[size] = right;
+			keys[slot] = key;
+			ids[slot] = size;
+			if( ++size * 2 > keys.length )
+				rehash();
+			return size - 1;
+		}
+
+		int left( int id ) {
+			return lefts[id];
+		}
+
+		int right( int id ) {
+			return rights[id];
+		}
+
+		int size() {
+			return size;
+		}
+
+		private void rehash() {
+			long[] oldKeys = keys;
+			int[] oldIds = ids;
+			keys = newKeys( oldKeys.length * 2 );
+			ids = new int[keys.length];
+			int mask = keys.length - 1;
+			for( int i = 0; i < oldKeys.length; i++ ) {
+				if( oldKeys[i] == FREE )
+					continue;
+				int slot = hash( oldKeys[i] ) & mask;
+				while( keys[slot] != FREE )
+					slot = slot + 1 & mask;
+				keys[slot] = oldKeys[i];
+				ids[slot] = oldIds[i];
+			}
+		}
+
+		private static long[] newKeys( int capacity ) {
+			long[] keys = new long[capacity];
+			Arrays.fill( keys, FREE );
+			return keys;
+		}
+
+		private static int hash( long key ) {
+			key *= 0x9E3779B97F4A7C15L;
+			return ( int ) ( key ^ key >>> 32 );
+		}
+	}
+}
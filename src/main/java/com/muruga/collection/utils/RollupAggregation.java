@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Aggregation of a ROLLUP, CUBE or grouping sets whose coarser groups are derived from the finer groups
+ * instead of accumulating every element into every grouping set.
+ * <p>
+ * Unlike an arbitrary {@link Collector}, merging a finer group into a coarser one never changes the finer group,
+ * so one finer level can be rolled up into several coarser levels.
+ * <pre>
+ * CollectionUtils.groupByCube( employees, asList( Employee::getDept, Employee::getLname ), RollupAggregation.sum( Employee::getSalary ) )
+ * </pre>
+ * @author muruga
+ *
+ */
+public final class RollupAggregation<T,V>
+{
+
+	private final Collector<T,?,V> collector;
+
+	private RollupAggregation( Collector<T,?,V> collector ) {
+		this.collector = collector;
+	}
+
+	/**
+	 * Returns collector whose combiner folds its right argument into its left one and returns the left one,
+	 * never changing the right one.
+	 */
+	Collector<T,?,V> collector() {
+		return collector;
+	}
+
+	/**
+	 * Returns number of elements of each group.
+	 * @return {@link RollupAggregation}
+	 */
+	public static <T> RollupAggregation<T,Long> count() {
+		return new RollupAggregation<>( Collector.<T,long[],Long>of( () -> new long[1]
+				, ( acc, val ) -> acc[0]++
+				, ( left, right ) -> { left[0] += right[0]; return left; }
+				, acc -> acc[0] ) );
+	}
+
+	/**
+	 * Returns sum of each group.
+	 * @param sumFunc
+	 * @return {@link RollupAggregation}
+	 */
+	public static <T> RollupAggregation<T,Integer> sum( ToIntFunction<T> sumFunc ) {
+		return new RollupAggregation<>( Collector.<T,int[],Integer>of( () -> new int[1]
+				, ( acc, val ) -> acc[0] += sumFunc.applyAsInt( val )
+				, ( left, right ) -> { left[0] += right[0]; return left; }
+				, acc -> acc[0] ) );
+	}
+
+	public static <T> RollupAggregation<T,Long> sum( ToLongFunction<T> sumFunc ) {
+		return new RollupAggregation<>( Collector.<T,long[],Long>of( () -> new long[1]
+				, ( acc, val ) -> acc[0] += sumFunc.applyAsLong( val )
+				, ( left, right ) -> { left[0] += right[0]; return left; }
+				, acc -> acc[0] ) );
+	}
+
+	/**
+	 * Returns sum of each group, with the compensated summation of {@link java.util.stream.Collectors#summingDouble}.
+	 * Coarser groups add up the compensated sums of their finer groups instead of every element, so they agree
+	 * with summingDouble over the same elements only to rounding, in the last bits.
+	 * @param sumFunc
+	 * @return {@link RollupAggregation}
+	 */
+	public static <T> RollupAggregation<T,Double> sum( ToDoubleFunction<T> sumFunc ) {
+		return new RollupAggregation<>( Collector.<T,double[],Double>of( () -> new double[CompensatedSum.SLOTS]
+				, ( acc, val ) -> CompensatedSum.add( acc, 0, sumFunc.applyAsDouble( val ) )
+				, ( left, right ) -> { CompensatedSum.merge( left, 0, right, 0 ); return left; }
+				, acc -> CompensatedSum.result( acc, 0 ) ) );
+	}
+
+	/**
+	 * Returns average of each group, with the compensated summation of {@link java.util.stream.Collectors#averagingDouble}.
+	 * As for {@link #sum(ToDoubleFunction)}, averages of coarser groups agree with averagingDouble only to rounding.
+	 * @param avgFunc
+	 * @return {@link RollupAggregation}
+	 */
+	public static <T> RollupAggregation<T,Double> avg( ToDoubleFunction<T> avgFunc ) {
+		int count = CompensatedSum.SLOTS;
+		return new RollupAggregation<>( Collector.<T,double[],Double>of( () -> new double[count + 1]
+				, ( acc, val ) -> {
+					CompensatedSum.add( acc, 0, avgFunc.applyAsDouble( val ) );
+					acc[count]++;
+				}
+				, ( left, right ) -> {
+					CompensatedSum.merge( left, 0, right, 0 );
+					left[count] += right[count];
+					return left;
+				}
+				, acc -> acc[count] == 0 ? 0d : CompensatedSum.result( acc, 0 ) / acc[count] ) );
+	}
+
+	/**
+	 * Returns minimum value of each group.
+	 * @param minFunc
+	 * @return {@link RollupAggregation}
+	 */
+	public static <T,V extends Comparable<? super V>> RollupAggregation<T,Optional<V>> min( Function<T,V> minFunc ) {
+		return extreme( minFunc, true );
+	}
+
+	/**
+	 * Returns maximum value of each group.
+	 * @param maxFunc
+	 * @return {@link RollupAggregation}
+	 */
+	public static <T,V extends Comparable<? super V>> RollupAggregation<T,Optional<V>> max( Function<T,V> maxFunc ) {
+		return extreme( maxFunc, false );
+	}
+
+	private static <T,V extends Comparable<? super V>> RollupAggregation<T,Optional<V>> extreme( Function<T,V> func, boolean min ) {
+		return new RollupAggregation<>( Collector.<T,Object[],Optional<V>>of( () -> new Object[1]
+				, ( acc, val ) -> keep( acc, func.apply( val ), min )
+				, ( left, right ) -> {
+					@SuppressWarnings("unchecked")
+					V value = ( V ) right[0];
+					if( value != null )
+						keep( left, value, min );
+					return left;
+				}
+				, acc -> {
+					@SuppressWarnings("unchecked")
+					V value = ( V ) acc[0];
+					return Optional.ofNullable( value );
+				} ) );
+	}
+
+	private static <V extends Comparable<? super V>> void keep( Object[] acc, V value, boolean min ) {
+		@SuppressWarnings("unchecked")
+		V current = ( V ) acc[0];
+		if( current == null || ( min ? value.compareTo( current ) < 0 : value.compareTo( current ) > 0 ) )
+			acc[0] = value;
+	}
+
+	/**
+	 * Returns values of each group joined by delimiter. Values of coarser groups are joined in the order
+	 * of their finer groups.
+	 * @param aggFunc
+	 * @param delimiter
+	 * @return {@link RollupAggregation}
+	 */
+	public static <T> RollupAggregation<T,String> stringAgg( Function<T,String> aggFunc, String delimiter ) {
+		return new RollupAggregation<>( Collector.<T,StringJoiner,String>of( () -> new StringJoiner( delimiter )
+				, ( acc, val ) -> acc.add( aggFunc.apply( val ) )
+				, StringJoiner::merge
+				, StringJoiner::toString ) );
+	}
+}
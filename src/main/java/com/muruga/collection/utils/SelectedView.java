@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Read-only {@link List} view of the elements of a list at the positions of a {@link SelectionVector}.
+ * Being a list, the existing groupBy methods keep equal elements of the view as they do for lists.
+ * @author muruga
+ *
+ */
+class SelectedView<T> extends AbstractList<T>
+{
+
+	final List<T> list;
+
+	final int[] positions;
+
+	private SelectedView( List<T> list, int[] positions ) {
+		this.list = list;
+		this.positions = positions;
+	}
+
+	/**
+	 * Returns view of the selected elements; random access if the list is.
+	 */
+	static <T> List<T> of( List<T> list, SelectionVector selection ) {
+		int[] positions = selection.toArray();
+		if( positions.length > 0 && positions[positions.length - 1] >= list.size() )
+			throw new IndexOutOfBoundsException( "Position: " + positions[positions.length - 1] + ", Size: " + list.size() );
+		return list instanceof RandomAccess ? new RandomAccessView<>( list, positions ) : new SelectedView<>( list, positions );
+	}
+
+	@Override
+	public T get( int index ) {
+		return list.get( positions[index] );
+	}
+
+	@Override
+	public int size() {
+		return positions.length;
+	}
+
+	/**
+	 * Walks the backing list once instead of seeking every position.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		ListIterator<T> iterator = list.listIterator();
+		return new Iterator<T>() {
+
+			int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < positions.length;
+			}
+
+			@Override
+			public T next() {
+				if( !hasNext() )
+					throw new NoSuchElementException();
+				int position = positions[next++];
+				while( iterator.nextIndex() < position )
+					iterator.next();
+				return iterator.next();
+			}
+		};
+	}
+
+	private static final class RandomAccessView<T> extends SelectedView<T> implements RandomAccess {
+
+		RandomAccessView( List<T> list, int[] positions ) {
+			super( list, positions );
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return listIterator();
+		}
+	}
+}
@@ -0,0 +1,504 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.muruga.collection.utils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, compressed set of element positions of a {@link List}, produced by evaluating a predicate once.
+ * Selection vectors of the same list are combined with {@link #and(SelectionVector)}, {@link #or(SelectionVector)}
+ * and {@link #andNot(SelectionVector)} instead of re-filtering the list.
+ * <p>
+ * Positions are stored Roaring-style: split by their high 16 bits into chunks of 65536 positions, each chunk
+ * kept either as a sorted array (sparse) or as a bitmap (dense).
+ * <pre>
+ * {@code SelectionVector it = CollectionUtils.selecting( employees, emp -> emp.getDept().equals( "IT" ) ) }
+ * {@code SelectionVector rich = CollectionUtils.selecting( employees, emp -> emp.getSalary() > 100 ) }
+ * CollectionUtils.selectedList( employees, it.and( rich ) ) = List[{fname="a", lname="k", dept="IT", salary=110.0}]
+ * </pre>
+ * @author muruga
+ *
+ */
+public final class SelectionVector
+{
+
+	static final int CHUNK_SIZE = 1 << 16;
+
+	private static final int ARRAY_MAX = 4096;
+
+	private static final int WORDS = CHUNK_SIZE / Long.SIZE;
+
+	private static final SelectionVector EMPTY = new SelectionVector( new char[0], new Container[0] );
+
+	private final char[] keys;
+
+	private final Container[] containers;
+
+	private final int cardinality;
+
+	private SelectionVector( char[] keys, Container[] containers ) {
+		this.keys = keys;
+		this.containers = containers;
+		int card = 0;
+		for( Container container : containers )
+			card += container.cardinality();
+		this.cardinality = card;
+	}
+
+	/**
+	 * Returns the empty selection.
+	 * @return {@link SelectionVector}
+	 */
+	public static SelectionVector empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Returns selection of the given positions. Duplicates are ignored.
+	 * <pre>
+	 * SelectionVector.of() = []
+	 * SelectionVector.of( 3, 1, 3 ) = [1, 3]
+	 * </pre>
+	 * @param positions - non negative positions
+	 * @return {@link SelectionVector}
+	 */
+	public static SelectionVector of( int... positions ) {
+		int[] sorted = positions.clone();
+		Arrays.sort( sorted );
+		if( sorted.length > 0 && sorted[0] < 0 )
+			throw new IllegalArgumentException( "Negative position: " + sorted[0] );
+		Builder builder = new Builder( sorted.length == 0 ? 0 : sorted[sorted.length - 1] / CHUNK_SIZE + 1 );
+		int i = 0;
+		while( i < sorted.length ) {
+			int high = sorted[i] >>> 16;
+			long[] words = new long[WORDS];
+			for( ; i < sorted.length && sorted[i] >>> 16 == high; i++ )
+				words[( sorted[i] & 0xFFFF ) >>> 6] |= 1L << sorted[i];
+			builder.add( high, compact( words ) );
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Evaluates the predicate once per element and returns the positions that matched.
+	 * In parallel mode the list is split into chunks of {@value #CHUNK_SIZE} positions which are evaluated
+	 * independently, so the predicate must be thread safe.
+	 * @param list
+	 * @param predicate
+	 * @param parallel - if true evaluates chunks parallely. else, sequentially.
+	 * @return {@link SelectionVector}
+	 */
+	static <T> SelectionVector evaluate( List<T> list, Predicate<T> predicate, boolean parallel ) {
+		int chunks = ( list.size() + CHUNK_SIZE - 1 ) / CHUNK_SIZE;
+		if( !parallel || chunks < 2 ) {
+			Builder builder = new Builder( chunks );
+			Iterator<T> iterator = list.iterator();
+			for( int chunk = 0; chunk < chunks; chunk++ )
+				builder.add( chunk, evaluate( iterator, Math.min( CHUNK_SIZE, list.size() - chunk * CHUNK_SIZE ), predicate ) );
+			return builder.build();
+		}
+		Container[] evaluated = IntStream.range( 0, chunks )
+										 .parallel()
+										 .mapToObj( chunk -> {
+											 int from = chunk * CHUNK_SIZE;
+											 int to = Math.min( from + CHUNK_SIZE, list.size() );
+											 return evaluate( list.subList( from, to ).iterator(), to - from, predicate );
+										 } )
+										 .toArray( Container[]::new );
+		Builder builder = new Builder( chunks );
+		for( int chunk = 0; chunk < chunks; chunk++ )
+			builder.add( chunk, evaluated[chunk] );
+		return builder.build();
+	}
+
+	private static <T> Container evaluate( Iterator<T> iterator, int length, Predicate<T> predicate ) {
+		long[] words = new long[WORDS];
+		for( int low = 0; low < length; low++ ) {
+			if( predicate.test( iterator.next() ) )
+				words[low >>> 6] |= 1L << low;
+		}
+		return compact( words );
+	}
+
+	/**
+	 * Returns positions present in both selections.
+	 * <pre>
+	 * [1, 2, 5].and( [2, 5, 7] ) = [2, 5]
+	 * </pre>
+	 * @param other
+	 * @return {@link SelectionVector}
+	 */
+	public SelectionVector and( SelectionVector other ) {
+		Builder builder = new Builder( Math.min( keys.length, other.keys.length ) );
+		int i = 0, j = 0;
+		while( i < keys.length && j < other.keys.length ) {
+			if( keys[i] < other.keys[j] )
+				i++;
+			else if( keys[i] > other.keys[j] )
+				j++;
+			else
+				builder.add( keys[i], containers[i++].and( other.containers[j++] ) );
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns positions present in either selection.
+	 * <pre>
+	 * [1, 2, 5].or( [2, 5, 7] ) = [1, 2, 5, 7]
+	 * </pre>
+	 * @param other
+	 * @return {@link SelectionVector}
+	 */
+	public SelectionVector or( SelectionVector other ) {
+		Builder builder = new Builder( keys.length + other.keys.length );
+		int i = 0, j = 0;
+		while( i < keys.length || j < other.keys.length ) {
+			if( j == other.keys.length || ( i < keys.length && keys[i] < other.keys[j] ) )
+				builder.add( keys[i], containers[i++] );
+			else if( i == keys.length || keys[i] > other.keys[j] )
+				builder.add( other.keys[j], other.containers[j++] );
+			else
+				builder.add( keys[i], containers[i++].or( other.containers[j++] ) );
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns positions present in this selection but not in the other.
+	 * <pre>
+	 * [1, 2, 5].andNot( [2, 5, 7] ) = [1]
+	 * </pre>
+	 * @param other
+	 * @return {@link SelectionVector}
+	 */
+	public SelectionVector andNot( SelectionVector other ) {
+		Builder builder = new Builder( keys.length );
+		int i = 0, j = 0;
+		while( i < keys.length ) {
+			if( j == other.keys.length || keys[i] < other.keys[j] )
+				builder.add( keys[i], containers[i++] );
+			else if( keys[i] > other.keys[j] )
+				j++;
+			else
+				builder.add( keys[i], containers[i++].andNot( other.containers[j++] ) );
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns true if the position is selected. Otherwise, false.
+	 * @param position
+	 * @return boolean
+	 */
+	public boolean contains( int position ) {
+		if( position < 0 )
+			return false;
+		int index = Arrays.binarySearch( keys, ( char ) ( position >>> 16 ) );
+		return index >= 0 && containers[index].contains( ( char ) position );
+	}
+
+	/**
+	 * Returns number of selected positions.
+	 * @return int
+	 */
+	public int cardinality() {
+		return cardinality;
+	}
+
+	/**
+	 * Returns true if no position is selected. Otherwise, false.
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return cardinality == 0;
+	}
+
+	/**
+	 * Performs the action for each selected position in ascending order.
+	 * @param action
+	 */
+	public void forEach( IntConsumer action ) {
+		for( int i = 0; i < keys.length; i++ )
+			containers[i].forEach( keys[i] << 16, action );
+	}
+
+	/**
+	 * Returns selected positions in ascending order.
+	 * @return int[]
+	 */
+	public int[] toArray() {
+		int[] positions = new int[cardinality];
+		int[] index = { 0 };
+		forEach( position -> positions[index[0]++] = position );
+		return positions;
+	}
+
+	/**
+	 * Returns selected positions in ascending order as {@link IntStream}.
+	 * @return {@link IntStream}
+	 */
+	public IntStream stream() {
+		return IntStream.of( toArray() );
+	}
+
+	@Override
+	public boolean equals( Object obj ) {
+		if( this == obj )
+			return true;
+		if( !( obj instanceof SelectionVector ) )
+			return false;
+		SelectionVector other = ( SelectionVector ) obj;
+		return cardinality == other.cardinality && Arrays.equals( toArray(), other.toArray() );
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode( toArray() );
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString( toArray() );
+	}
+
+	/**
+	 * Returns the smallest container holding the bits set in words, or null when no bit is set.
+	 */
+	private static Container compact( long[] words ) {
+		int card = 0;
+		for( long word : words )
+			card += Long.bitCount( word );
+		if( card == 0 )
+			return null;
+		if( card > ARRAY_MAX )
+			return new BitmapContainer( words, card );
+		char[] values = new char[card];
+		int index = 0;
+		for( int w = 0; w < words.length; w++ ) {
+			for( long word = words[w]; word != 0; word &= word - 1 )
+				values[index++] = ( char ) ( ( w << 6 ) + Long.numberOfTrailingZeros( word ) );
+		}
+		return new ArrayContainer( values, card );
+	}
+
+	private static final class Builder {
+
+		private char[] keys;
+
+		private Container[] containers;
+
+		private int size;
+
+		Builder( int capacity ) {
+			keys = new char[capacity];
+			containers = new Container[capacity];
+		}
+
+		void add( int key, Container container ) {
+			if( container == null )
+				return;
+			if( size == keys.length ) {
+				keys = Arrays.copyOf( keys, Math.max( 4, size * 2 ) );
+				containers = Arrays.copyOf( containers, keys.length );
+			}
+			keys[size] = ( char ) key;
+			containers[size++] = container;
+		}
+
+		SelectionVector build() {
+			return size == 0 ? EMPTY : new SelectionVector( Arrays.copyOf( keys, size ), Arrays.copyOf( containers, size ) );
+		}
+	}
+
+	private static abstract class Container {
+
+		abstract int cardinality();
+
+		abstract boolean contains( char low );
+
+		abstract void forEach( int high, IntConsumer action );
+
+		abstract long[] words();
+
+		abstract Container and( Container other );
+
+		abstract Container or( Container other );
+
+		abstract Container andNot( Container other );
+	}
+
+	/**
+	 * Sparse chunk: sorted low 16 bits of the selected positions.
+	 */
+	private static final class ArrayContainer extends Container {
+
+		private final char[] values;
+
+		private final int cardinality;
+
+		ArrayContainer( char[] values, int cardinality ) {
+			this.values = values;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains( char low ) {
+			return Arrays.binarySearch( values, 0, cardinality, low ) >= 0;
+		}
+
+		@Override
+		void forEach( int high, IntConsumer action ) {
+			for( int i = 0; i < cardinality; i++ )
+				action.accept( high | values[i] );
+		}
+
+		@Override
+		long[] words() {
+			long[] words = new long[WORDS];
+			for( int i = 0; i < cardinality; i++ )
+				words[values[i] >>> 6] |= 1L << values[i];
+			return words;
+		}
+
+		@Override
+		Container and( Container other ) {
+			return retain( other, true );
+		}
+
+		@Override
+		Container or( Container other ) {
+			if( other instanceof BitmapContainer )
+				return other.or( this );
+			ArrayContainer that = ( ArrayContainer ) other;
+			char[] merged = new char[cardinality + that.cardinality];
+			int i = 0, j = 0, k = 0;
+			while( i < cardinality && j < that.cardinality ) {
+				if( values[i] < that.values[j] )
+					merged[k++] = values[i++];
+				else if( values[i] > that.values[j] )
+					merged[k++] = that.values[j++];
+				else {
+					merged[k++] = values[i++];
+					j++;
+				}
+			}
+			while( i < cardinality )
+				merged[k++] = values[i++];
+			while( j < that.cardinality )
+				merged[k++] = that.values[j++];
+			if( k > ARRAY_MAX )
+				return new BitmapContainer( new ArrayContainer( merged, k ).words(), k );
+			return new ArrayContainer( merged, k );
+		}
+
+		@Override
+		Container andNot( Container other ) {
+			return retain( other, false );
+		}
+
+		/**
+		 * Keeps values whose membership in other equals present.
+		 */
+		private Container retain( Container other, boolean present ) {
+			char[] kept = new char[cardinality];
+			int k = 0;
+			for( int i = 0; i < cardinality; i++ ) {
+				if( other.contains( values[i] ) == present )
+					kept[k++] = values[i];
+			}
+			return k == 0 ? null : new ArrayContainer( kept, k );
+		}
+	}
+
+	/**
+	 * Dense chunk: one bit per position of the chunk.
+	 */
+	private static final class BitmapContainer extends Container {
+
+		private final long[] words;
+
+		private final int cardinality;
+
+		BitmapContainer( long[] words, int cardinality ) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains( char low ) {
+			return ( words[low >>> 6] & ( 1L << low ) ) != 0;
+		}
+
+		@Override
+		void forEach( int high, IntConsumer action ) {
+			for( int w = 0; w < words.length; w++ ) {
+				for( long word = words[w]; word != 0; word &= word - 1 )
+					action.accept( high | ( w << 6 ) + Long.numberOfTrailingZeros( word ) );
+			}
+		}
+
+		@Override
+		long[] words() {
+			return words;
+		}
+
+		@Override
+		Container and( Container other ) {
+			if( other instanceof ArrayContainer )
+				return other.and( this );
+			long[] result = new long[WORDS];
+			long[] that = other.words();
+			for( int w = 0; w < WORDS; w++ )
+				result[w] = words[w] & that[w];
+			return compact( result );
+		}
+
+		@Override
+		Container or( Container other ) {
+			long[] result = other.words().clone();
+			for( int w = 0; w < WORDS; w++ )
+				result[w] |= words[w];
+			return compact( result );
+		}
+
+		@Override
+		Container andNot( Container other ) {
+			long[] result = words.clone();
+			long[] that = other.words();
+			for( int w = 0; w < WORDS; w++ )
+				result[w] &= ~that[w];
+			return compact( result );
+		}
+	}
+}
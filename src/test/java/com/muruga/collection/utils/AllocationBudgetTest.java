@@ -0,0 +1,315 @@
+package com.muruga.collection.utils;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.summingDouble;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Allocation regression tests: runs each operation over generated employees and fails when the bytes it allocates
+ * exceed the budget recorded in allocation-budgets.properties as "perElement,perGroup" bytes.
+ * Every operation is measured with few and with many groups, so both parts of the budget are checked.
+ * The measured allocations are written to target/surefire-reports/allocation-report.csv, along with the per element
+ * and per group parts fitted from the two measurements. Budgets depend on the JVM's object layout, see
+ * allocation-budgets.properties.
+ * <p>
+ * Every public operation is measured, with one overload per name: overloads differing only in the type of
+ * the summed or averaged value share their code path. Sequential operations count the calling thread's allocations.
+ * Parallel operations run in a pool of {@value #PARALLELISM} threads, so they split the same way on any machine,
+ * and count the allocations of all live threads, including the pool's.
+ */
+class AllocationBudgetTest {
+
+	static final int ELEMENTS = 200_000;
+	static final int FEW_GROUPS = 16;
+	static final int MANY_GROUPS = 20_000;
+	static final int WARMUPS = 3;
+	static final int RUNS = 3;
+	static final int PARALLELISM = 4;
+
+	static final List<String> report = new ArrayList<>();
+
+	static Object sink;
+
+	static ForkJoinPool pool;
+
+	static ExecutorService loaders;
+
+	@BeforeAll
+	static void startPools() {
+		pool = new ForkJoinPool( PARALLELISM );
+		loaders = Executors.newFixedThreadPool( PARALLELISM );
+	}
+
+	@TestFactory
+	Stream<DynamicTest> allocationBudgets() throws IOException {
+		com.sun.management.ThreadMXBean threads = threadMXBean();
+		Properties budgets = new Properties();
+		try( InputStream in = getClass().getResourceAsStream( "/allocation-budgets.properties" ) ) {
+			budgets.load( in );
+		}
+		List<Employee> fewGroups = employees( FEW_GROUPS );
+		List<Employee> manyGroups = employees( MANY_GROUPS );
+		return Stream.concat( operations().entrySet().stream().map( operation -> new SimpleEntry<>( operation, false ) )
+							, parallelOperations().entrySet().stream().map( operation -> new SimpleEntry<>( operation, true ) ) )
+					 .map( test -> DynamicTest.dynamicTest( test.getKey().getKey(), () -> {
+			Map.Entry<String, Function<List<Employee>, Object>> operation = test.getKey();
+			String budget = budgets.getProperty( operation.getKey() );
+			long few = measure( threads, operation.getValue(), fewGroups, test.getValue() );
+			long many = measure( threads, operation.getValue(), manyGroups, test.getValue() );
+			if( budget == null )
+				fail( String.format( "No allocation budget for %s: allocated %d bytes with %d groups and %d bytes with %d groups"
+								   , operation.getKey(), few, FEW_GROUPS, many, MANY_GROUPS ) );
+			String[] parts = budget.split( "," );
+			double perElement = Double.parseDouble( parts[0].trim() );
+			double perGroup = Double.parseDouble( parts[1].trim() );
+			double groupBytes = ( double ) ( many - few ) / ( MANY_GROUPS - FEW_GROUPS );
+			double elementBytes = ( few - groupBytes * FEW_GROUPS ) / ELEMENTS;
+			boolean fewWithin = check( operation.getKey(), FEW_GROUPS, few, elementBytes, groupBytes, perElement, perGroup );
+			boolean manyWithin = check( operation.getKey(), MANY_GROUPS, many, elementBytes, groupBytes, perElement, perGroup );
+			assertTrue( fewWithin && manyWithin, String.format( "%s allocated %d bytes with %d groups and %d bytes with %d groups"
+					+ " ( %.2f bytes per element and %.2f bytes per group ), over its budget of %s bytes per element"
+					+ " and %s bytes per group on %s", operation.getKey(), few, FEW_GROUPS, many, MANY_GROUPS, elementBytes
+					, groupBytes, parts[0].trim(), parts[1].trim(), jvm() ) );
+		} ) );
+	}
+
+	@AfterAll
+	static void stopPools() {
+		pool.shutdown();
+		loaders.shutdown();
+	}
+
+	@AfterAll
+	static void writeReport() throws IOException {
+		if( report.isEmpty() )
+			return;
+		Path reports = Paths.get( "target", "surefire-reports" );
+		Files.createDirectories( reports );
+		List<String> lines = new ArrayList<>();
+		lines.add( "operation,elements,groups,allocatedBytes,bytesPerElement,bytesPerGroup,budgetBytes,withinBudget" );
+		// bytesPerElement and bytesPerGroup are the parts fitted from the few and many groups measurements
+		lines.addAll( report );
+		Files.write( reports.resolve( "allocation-report.csv" ), lines, StandardCharsets.UTF_8 );
+	}
+
+	static Map<String, Function<List<Employee>, Object>> operations() {
+		List<Function<Employee,String>> deptAndLname = asList( Employee::getDept, Employee::getLname );
+		Map<String, Function<List<Employee>, Object>> operations = new LinkedHashMap<>();
+		operations.put( "mappingList", emps -> CollectionUtils.mappingList( emps, Employee::getFname ) );
+		operations.put( "mappingSet", emps -> CollectionUtils.mappingSet( emps, Employee::getDept ) );
+		operations.put( "filteringList", emps -> CollectionUtils.filteringList( emps, emp -> emp.getSalary() > 500 ) );
+		operations.put( "filteringSet", emps -> CollectionUtils.filteringSet( emps, emp -> emp.getSalary() > 500 ) );
+		operations.put( "exists", emps -> CollectionUtils.exists( emps, emp -> emp.getSalary() < 0 ) );
+		operations.put( "findFirst", emps -> CollectionUtils.findFirst( emps, emp -> emp.getSalary() < 0 ) );
+		operations.put( "isEmpty", emps -> CollectionUtils.isEmpty( emps ) );
+		operations.put( "isNotEmpty", emps -> CollectionUtils.isNotEmpty( emps ) );
+		operations.put( "groupBy", emps -> CollectionUtils.groupBy( emps, Employee::getDept ) );
+		operations.put( "groupByMapping", emps -> CollectionUtils.groupByMapping( emps, Employee::getDept, Employee::getFname ) );
+		operations.put( "groupByCount", emps -> CollectionUtils.groupByCount( emps, Employee::getDept ) );
+		operations.put( "groupBySum", emps -> CollectionUtils.groupBySum( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByAvg", emps -> CollectionUtils.groupByAvg( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByMin", emps -> CollectionUtils.groupByMin( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByMax", emps -> CollectionUtils.groupByMax( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByMinObject", emps -> CollectionUtils.groupByMinObject( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByMaxObject", emps -> CollectionUtils.groupByMaxObject( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByStringAgg", emps -> CollectionUtils.groupByStringAgg( emps, Employee::getDept, Employee::getFname, "," ) );
+		operations.put( "summingInt", emps -> CollectionUtils.summingInt( emps, emp -> ( int ) emp.getSalary() ) );
+		operations.put( "summingLong", emps -> CollectionUtils.summingLong( emps, emp -> ( long ) emp.getSalary() ) );
+		operations.put( "summingDouble", emps -> CollectionUtils.summingDouble( emps, Employee::getSalary ) );
+		operations.put( "min", emps -> CollectionUtils.min( emps, Employee::getSalary ) );
+		operations.put( "max", emps -> CollectionUtils.max( emps, Employee::getSalary ) );
+		operations.put( "distint", emps -> CollectionUtils.distint( CollectionUtils.mappingList( emps, Employee::getDept ) ) );
+		operations.put( "distintValue", emps -> CollectionUtils.distintValue( emps, Employee::getDept ) );
+		operations.put( "orderBy", emps -> CollectionUtils.orderBy( emps, Employee::getSalary ) );
+		operations.put( "orderByDesc", emps -> CollectionUtils.orderByDesc( emps, Employee::getSalary ) );
+		operations.put( "sort", emps -> CollectionUtils.sort( emps, false, Comparator.comparingDouble( Employee::getSalary ) ) );
+		operations.put( "selecting", emps -> CollectionUtils.selecting( emps, emp -> emp.getSalary() > 500 ) );
+		operations.put( "selectedList", emps -> CollectionUtils.selectedList( emps, CollectionUtils.selecting( emps, emp -> emp.getSalary() > 500 ) ) );
+		operations.put( "selectedView", emps -> CollectionUtils.summingDouble( CollectionUtils.selectedView( emps
+				, CollectionUtils.selecting( emps, emp -> emp.getSalary() > 500 ) ), Employee::getSalary ) );
+		operations.put( "groupByRollup", emps -> CollectionUtils.groupByRollup( emps, deptAndLname, summingDouble( Employee::getSalary ) ) );
+		operations.put( "groupByRollupAggregation", emps -> CollectionUtils.groupByRollup( emps, deptAndLname
+				, RollupAggregation.sum( Employee::getSalary ) ) );
+		operations.put( "groupByCube", emps -> CollectionUtils.groupByCube( emps, deptAndLname, counting() ) );
+		operations.put( "groupByCubeAggregation", emps -> CollectionUtils.groupByCube( emps, deptAndLname, RollupAggregation.count() ) );
+		operations.put( "groupByGroupingSets", emps -> CollectionUtils.groupByGroupingSets( emps, deptAndLname, counting()
+				, new int[] { 0 }, new int[] { 1 } ) );
+		operations.put( "groupByGroupingSetsAggregation", emps -> CollectionUtils.groupByGroupingSets( emps, deptAndLname
+				, RollupAggregation.count(), new int[] { 0, 1 }, new int[] { 0 } ) );
+		operations.put( "groupByNested", emps -> CollectionUtils.groupByNested( emps, deptAndLname, summingDouble( Employee::getSalary ) ) );
+		operations.put( "groupByCountEncoded", emps -> CollectionUtils.groupByCountEncoded( emps, deptAndLname ) );
+		operations.put( "groupBySumEncoded", emps -> CollectionUtils.groupBySumEncoded( emps, deptAndLname, Employee::getSalary ) );
+		operations.put( "groupByAvgEncoded", emps -> CollectionUtils.groupByAvgEncoded( emps, deptAndLname, Employee::getSalary ) );
+		operations.put( "groupByMinEncoded", emps -> CollectionUtils.groupByMinEncoded( emps, deptAndLname, Employee::getFname ) );
+		operations.put( "groupByMaxEncoded", emps -> CollectionUtils.groupByMaxEncoded( emps, deptAndLname, Employee::getFname ) );
+		operations.put( "groupByStringAggEncoded", emps -> CollectionUtils.groupByStringAggEncoded( emps, deptAndLname
+				, Employee::getFname, "," ) );
+		operations.put( "mappingListBatched", emps -> CollectionUtils.mappingListBatched( emps
+				, batch -> CollectionUtils.mappingList( batch, Employee::getFname ), 1_000 ) );
+		operations.put( "batchLoader", emps -> CollectionUtils.mappingListBatched( emps, CollectionUtils.batchLoader(
+				( List<Employee> batch ) -> batch.stream().collect( Collectors.toMap( emp -> emp, Employee::getFname ) ) ), 1_000 ) );
+		operations.put( "mappingSetBatched", emps -> CollectionUtils.mappingSetBatched( emps
+				, batch -> CollectionUtils.mappingList( batch, Employee::getDept ), 1_000 ) );
+		operations.put( "filteringListBatched", emps -> CollectionUtils.filteringListBatched( emps
+				, batch -> CollectionUtils.mappingList( batch, emp -> emp.getSalary() > 500 ), 1_000 ) );
+		operations.put( "groupByMappingBatched", emps -> CollectionUtils.groupByMappingBatched( emps, Employee::getDept
+				, batch -> CollectionUtils.mappingList( batch, Employee::getFname ), 1_000 ) );
+		operations.put( "distinctOrdered", emps -> CollectionUtils.distinctOrdered( CollectionUtils.mappingList( emps, Employee::getDept ) ) );
+		operations.put( "distinctByKey", emps -> CollectionUtils.distinctByKey( emps, Employee::getDept ) );
+		operations.put( "distinctStream", emps -> {
+			try( Stream<Employee> distinct = CollectionUtils.distinctStream( emps.stream(), Employee::getDept
+																		   , DistinctOptions.inMemory() ) ) {
+				return distinct.count();
+			}
+		} );
+		return operations;
+	}
+
+	static Map<String, Function<List<Employee>, Object>> parallelOperations() {
+		List<Function<Employee,String>> deptAndLname = asList( Employee::getDept, Employee::getLname );
+		Map<String, Function<List<Employee>, Object>> operations = new LinkedHashMap<>();
+		operations.put( "mappingListParallely", emps -> CollectionUtils.mappingListParallely( emps, Employee::getFname ) );
+		operations.put( "mappingSetParallely", emps -> CollectionUtils.mappingSetParallely( emps, Employee::getDept ) );
+		operations.put( "filteringListParallely", emps -> CollectionUtils.filteringListParallely( emps, emp -> emp.getSalary() > 500 ) );
+		operations.put( "filteringSetParallely", emps -> CollectionUtils.filteringSetParallely( emps, emp -> emp.getSalary() > 500 ) );
+		operations.put( "existsParallely", emps -> CollectionUtils.existsParallely( emps, emp -> emp.getSalary() < 0 ) );
+		operations.put( "findFirstParallely", emps -> CollectionUtils.findFirstParallely( emps, emp -> emp.getSalary() < 0 ) );
+		operations.put( "groupByParallely", emps -> CollectionUtils.groupByParallely( emps, Employee::getDept ) );
+		operations.put( "groupByMappingParallely", emps -> CollectionUtils.groupByMappingParallely( emps, Employee::getDept, Employee::getFname ) );
+		operations.put( "groupByCountParallely", emps -> CollectionUtils.groupByCountParallely( emps, Employee::getDept ) );
+		operations.put( "groupBySumParallely", emps -> CollectionUtils.groupBySumParallely( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByAvgParallely", emps -> CollectionUtils.groupByAvgParallely( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByMinParallely", emps -> CollectionUtils.groupByMinParallely( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByMaxParallely", emps -> CollectionUtils.groupByMaxParallely( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByMinObjectParallely", emps -> CollectionUtils.groupByMinObjectParallely( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByMaxObjectParallely", emps -> CollectionUtils.groupByMaxObjectParallely( emps, Employee::getDept, Employee::getSalary ) );
+		operations.put( "groupByStringAggParallely", emps -> CollectionUtils.groupByStringAggParallely( emps, Employee::getDept
+				, Employee::getFname, "," ) );
+		operations.put( "summingIntParallely", emps -> CollectionUtils.summingIntParallely( emps, emp -> ( int ) emp.getSalary() ) );
+		operations.put( "summingLongParallely", emps -> CollectionUtils.summingLongParallely( emps, emp -> ( long ) emp.getSalary() ) );
+		operations.put( "summingDoubleParallely", emps -> CollectionUtils.summingDoubleParallely( emps, Employee::getSalary ) );
+		operations.put( "minParallely", emps -> CollectionUtils.minParallely( emps, Employee::getSalary ) );
+		operations.put( "maxParallely", emps -> CollectionUtils.maxParallely( emps, Employee::getSalary ) );
+		operations.put( "distintParallely", emps -> CollectionUtils.distintParallely( CollectionUtils.mappingList( emps, Employee::getDept ) ) );
+		operations.put( "distintValueParallely", emps -> CollectionUtils.distintValueParallely( emps, Employee::getDept ) );
+		operations.put( "orderByParallely", emps -> CollectionUtils.orderByParallely( emps, Employee::getSalary ) );
+		operations.put( "orderByDescParallely", emps -> CollectionUtils.orderByDescParallely( emps, Employee::getSalary ) );
+		operations.put( "sortParallel", emps -> CollectionUtils.sort( emps, true, Comparator.comparingDouble( Employee::getSalary ) ) );
+		operations.put( "selectingParallely", emps -> CollectionUtils.selectingParallely( emps, emp -> emp.getSalary() > 500 ) );
+		operations.put( "groupByRollupParallely", emps -> CollectionUtils.groupByRollupParallely( emps, deptAndLname
+				, summingDouble( Employee::getSalary ) ) );
+		operations.put( "groupByRollupAggregationParallely", emps -> CollectionUtils.groupByRollupParallely( emps, deptAndLname
+				, RollupAggregation.sum( Employee::getSalary ) ) );
+		operations.put( "groupByCubeParallely", emps -> CollectionUtils.groupByCubeParallely( emps, deptAndLname, counting() ) );
+		operations.put( "groupByCubeAggregationParallely", emps -> CollectionUtils.groupByCubeParallely( emps, deptAndLname
+				, RollupAggregation.count() ) );
+		operations.put( "groupByGroupingSetsParallely", emps -> CollectionUtils.groupByGroupingSetsParallely( emps, deptAndLname
+				, counting(), new int[] { 0 }, new int[] { 1 } ) );
+		operations.put( "groupByGroupingSetsAggregationParallely", emps -> CollectionUtils.groupByGroupingSetsParallely( emps
+				, deptAndLname, RollupAggregation.count(), new int[] { 0, 1 }, new int[] { 0 } ) );
+		operations.put( "groupByNestedParallely", emps -> CollectionUtils.groupByNestedParallely( emps, deptAndLname
+				, summingDouble( Employee::getSalary ) ) );
+		operations.put( "mappingListBatchedParallely", emps -> CollectionUtils.mappingListBatchedParallely( emps
+				, batch -> CollectionUtils.mappingList( batch, Employee::getFname ), 1_000, loaders, PARALLELISM ) );
+		operations.put( "mappingSetBatchedParallely", emps -> CollectionUtils.mappingSetBatchedParallely( emps
+				, batch -> CollectionUtils.mappingList( batch, Employee::getDept ), 1_000, loaders, PARALLELISM ) );
+		operations.put( "filteringListBatchedParallely", emps -> CollectionUtils.filteringListBatchedParallely( emps
+				, batch -> CollectionUtils.mappingList( batch, emp -> emp.getSalary() > 500 ), 1_000, loaders, PARALLELISM ) );
+		operations.put( "groupByMappingBatchedParallely", emps -> CollectionUtils.groupByMappingBatchedParallely( emps, Employee::getDept
+				, batch -> CollectionUtils.mappingList( batch, Employee::getFname ), 1_000, loaders, PARALLELISM ) );
+		operations.put( "distinctOrderedParallely", emps -> CollectionUtils.distinctOrderedParallely( CollectionUtils.mappingList( emps
+				, Employee::getDept ) ) );
+		operations.put( "distinctByKeyParallely", emps -> CollectionUtils.distinctByKeyParallely( emps, Employee::getDept ) );
+		return operations;
+	}
+
+	/**
+	 * Returns smallest number of bytes allocated by the operation over its runs, after warm up. A parallel operation
+	 * runs in the pool and its allocations are summed over all live threads.
+	 */
+	static long measure( com.sun.management.ThreadMXBean threads, Function<List<Employee>, Object> operation
+			, List<Employee> employees, boolean parallel ) {
+		Supplier<Object> run = parallel ? () -> pool.submit( () -> operation.apply( employees ) ).join() : () -> operation.apply( employees );
+		for( int i = 0; i < WARMUPS; i++ )
+			sink = run.get();
+		long allocated = Long.MAX_VALUE;
+		long thread = Thread.currentThread().getId();
+		for( int i = 0; i < RUNS; i++ ) {
+			long[] ids = parallel ? threads.getAllThreadIds() : new long[] { thread };
+			long[] before = threads.getThreadAllocatedBytes( ids );
+			sink = run.get();
+			long[] after = threads.getThreadAllocatedBytes( ids );
+			long total = 0;
+			for( int t = 0; t < ids.length; t++ ) {
+				if( before[t] >= 0 && after[t] >= 0 )
+					total += after[t] - before[t];
+			}
+			allocated = Math.min( allocated, total );
+		}
+		return allocated;
+	}
+
+	static boolean check( String operation, int groups, long allocated, double elementBytes, double groupBytes
+			, double perElement, double perGroup ) {
+		long budget = ( long ) ( perElement * ELEMENTS + perGroup * groups );
+		boolean within = allocated <= budget;
+		report.add( String.format( "%s,%d,%d,%d,%.2f,%.2f,%d,%s", operation, ELEMENTS, groups, allocated
+								 , elementBytes, groupBytes, budget, within ) );
+		return within;
+	}
+
+	/**
+	 * Returns JVM version and object layout the allocations depend on.
+	 */
+	static String jvm() {
+		return System.getProperty( "java.vm.name" ) + " " + System.getProperty( "java.version" )
+			 + ", " + System.getProperty( "sun.arch.data.model", "?" ) + " bit";
+	}
+
+	static List<Employee> employees( int groups ) {
+		List<String> depts = IntStream.range( 0, groups ).mapToObj( i -> "dept" + i ).collect( Collectors.toList() );
+		return IntStream.range( 0, ELEMENTS )
+						.mapToObj( i -> new Employee( "fname" + i, i % 3 == 0 ? "k" : "m", depts.get( i % groups ), i % 1000 ) )
+						.collect( Collectors.toList() );
+	}
+
+	static com.sun.management.ThreadMXBean threadMXBean() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		assumeTrue( threads instanceof com.sun.management.ThreadMXBean, "Thread allocation accounting is not available" );
+		com.sun.management.ThreadMXBean allocations = ( com.sun.management.ThreadMXBean ) threads;
+		assumeTrue( allocations.isThreadAllocatedMemorySupported(), "Thread allocation accounting is not supported" );
+		allocations.setThreadAllocatedMemoryEnabled( true );
+		return allocations;
+	}
+}
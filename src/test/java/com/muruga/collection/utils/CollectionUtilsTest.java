@@ -2,12 +2,26 @@ package com.muruga.collection.utils;
 
 import static java.lang.System.out;
 import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -74,6 +88,121 @@ class CollectionUtilsTest {
 					   .forEach( (k,v) -> out.println( k + ":" + v ) );
 	}
 
+	@Test
+	void testMappingListBatched() {
+		List<List<String>> batches = new ArrayList<>();
+		Function<List<String>, List<Employee>> loader = fnames -> {
+			batches.add( fnames );
+			return CollectionUtils.mappingList( fnames, fname -> CollectionUtils.findFirst( employees, emp -> emp.getFname().equals( fname ) ).orElse( null ) );
+		};
+		List<String> fnames = asList( "ila", "muruga", "ila", "ananth", "iniyan", "muruga" );
+		assertNull( CollectionUtils.mappingListBatched( null, loader, 2 ) );
+		assertTrue( CollectionUtils.mappingListBatched( new ArrayList<String>(), loader, 2 ).isEmpty() );
+		List<Employee> loaded = CollectionUtils.mappingListBatched( fnames, loader, 2 );
+		assertEquals( fnames, CollectionUtils.mappingList( loaded, Employee::getFname ) );
+		assertEquals( asList( asList( "ila", "muruga" ), asList( "ananth", "iniyan" ) ), batches );
+		ExecutorService executor = Executors.newFixedThreadPool( 2 );
+		try {
+			assertEquals( loaded, CollectionUtils.mappingListBatchedParallely( fnames, loader, 1, executor, 2 ) );
+			assertEquals( 4, CollectionUtils.mappingSetBatchedParallely( fnames, loader, 1, executor, 3 ).size() );
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThrows( IllegalArgumentException.class, () -> CollectionUtils.mappingListBatchedParallely( fnames, loader, 1, null, 2 ) );
+		assertEquals( 4, CollectionUtils.mappingSetBatched( fnames, loader, 3 ).size() );
+		assertThrows( IllegalStateException.class, () -> CollectionUtils.mappingListBatched( fnames, batch -> new ArrayList<>(), 2 ) );
+	}
+	
+	@Test
+	void testFilteringListBatched() {
+		Function<List<Employee>, List<Boolean>> highPaid = batch -> CollectionUtils.mappingList( batch, emp -> emp.getSalary() > 105 );
+		assertEquals( CollectionUtils.filteringList( employees, emp -> emp.getSalary() > 105 )
+					, CollectionUtils.filteringListBatchedParallely( employees, highPaid, 3, Runnable::run, 1 ) );
+		assertEquals( CollectionUtils.filteringList( employees, emp -> emp.getSalary() > 105 )
+					, CollectionUtils.filteringListBatched( employees, highPaid, 3 ) );
+	}
+	
+	@Test
+	void testGroupByMappingBatched() {
+		Function<List<Employee>, Map<Employee, String>> loader = batch -> batch.stream().collect( toMap( emp -> emp, Employee::getFname ) );
+		assertEquals( CollectionUtils.groupByMapping( employees, Employee::getDept, Employee::getFname )
+					, CollectionUtils.groupByMappingBatched( employees, Employee::getDept, CollectionUtils.batchLoader( loader ), 3 ) );
+		assertEquals( CollectionUtils.groupByMapping( employeesSet, Employee::getDept, Employee::getFname )
+					, CollectionUtils.groupByMappingBatchedParallely( employeesSet, Employee::getDept, CollectionUtils.batchLoader( loader ), 1
+																	 , ForkJoinPool.commonPool(), 2 ) );
+	}
+	
+	@Test
+	void testBatchedPipelining() throws InterruptedException {
+		List<Integer> ids = new ArrayList<>();
+		for( int i = 0; i < 40; i++ )
+			ids.add( i );
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		AtomicInteger started = new AtomicInteger();
+		Function<List<Integer>, List<Integer>> loader = batch -> {
+			started.incrementAndGet();
+			maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+			try {
+				Thread.sleep( 5 );
+			}
+			catch( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+			if( batch.get( 0 ) == 4 && ids.size() > 40 )
+				throw new IllegalStateException( "Load failed" );
+			return batch;
+		};
+		ExecutorService executor = Executors.newFixedThreadPool( 8 );
+		try {
+			assertEquals( ids, CollectionUtils.mappingListBatchedParallely( ids, loader, 2, executor, 3 ) );
+			assertEquals( 20, started.get() );
+			assertTrue( maxRunning.get() <= 3 );
+			ids.add( 40 );
+			started.set( 0 );
+			assertThrows( IllegalStateException.class, () -> CollectionUtils.mappingListBatchedParallely( ids, loader, 2, executor, 3 ) );
+			executor.shutdown();
+			executor.awaitTermination( 1, TimeUnit.SECONDS );
+			assertTrue( started.get() <= 5 );
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void testBatchedCancellation() throws InterruptedException {
+		List<Integer> ids = asList( 0, 1, 2, 3, 4, 5 );
+		CountDownLatch running = new CountDownLatch( 2 );
+		AtomicInteger interrupted = new AtomicInteger();
+		Function<List<Integer>, List<Integer>> loader = batch -> {
+			try {
+				if( batch.get( 0 ) == 0 ) {
+					running.await( 5, TimeUnit.SECONDS );
+					throw new IllegalStateException( "Load failed" );
+				}
+				running.countDown();
+				Thread.sleep( 10_000 );
+			}
+			catch( InterruptedException e ) {
+				interrupted.incrementAndGet();
+			}
+			return batch;
+		};
+		ExecutorService executor = Executors.newFixedThreadPool( 3 );
+		try {
+			assertThrows( IllegalStateException.class, () -> CollectionUtils.mappingListBatchedParallely( ids, loader, 1, executor, 3 ) );
+			executor.shutdown();
+			assertTrue( executor.awaitTermination( 5, TimeUnit.SECONDS ) );
+			assertEquals( 2, interrupted.get() );
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	<T> int size( Collection<T> collection ) {
 		return collection == null ? 0 : collection.size();
 	}
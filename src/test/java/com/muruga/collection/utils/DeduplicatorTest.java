@@ -0,0 +1,109 @@
+package com.muruga.collection.utils;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeduplicatorTest {
+
+	List<Employee> employees;
+	Path spillDirectory;
+
+	@BeforeEach
+	void setup() throws IOException {
+		employees = asList( new Employee( "muruga", "k", "IT", 100 )
+						  , new Employee( "ananth", "k", "IT", 110 )
+						  , new Employee( "iniyan", "k", "HR", 130 )
+						  , new Employee( "ila", "k", "HR", 105)
+						  );
+		spillDirectory = Files.createTempDirectory( "distinct-test" );
+	}
+
+	@AfterEach
+	void cleanup() throws IOException {
+		Files.delete( spillDirectory );
+	}
+
+	@Test
+	void testDistinctOrdered() {
+		assertNull( CollectionUtils.distinctOrdered( null ) );
+		assertTrue( CollectionUtils.distinctOrdered( new ArrayList<>() ).isEmpty() );
+		assertEquals( asList( 3, 1, 2 ), CollectionUtils.distinctOrdered( asList( 3, 1, 3, 2, 1 ) ) );
+		assertEquals( asList( 3, 1, 2 ), CollectionUtils.distinctOrderedParallely( asList( 3, 1, 3, 2, 1 ) ) );
+		assertEquals( asList( employees.get( 0 ), employees.get( 2 ) ), CollectionUtils.distinctByKey( employees, Employee::getDept ) );
+		assertEquals( asList( employees.get( 0 ), employees.get( 2 ) ), CollectionUtils.distinctByKeyParallely( employees, Employee::getDept ) );
+		assertEquals( new HashSet<>( asList( "IT", "HR" ) ), CollectionUtils.distintValueParallely( employees, Employee::getDept ) );
+	}
+
+	@Test
+	void testDistinctByKeyNulls() {
+		List<String> names = asList( "muruga", null, "ila", null, "iniyan", "ananth" );
+		assertEquals( asList( "muruga", null, "ila" ), CollectionUtils.distinctByKey( names, name -> name == null ? null : name.length() ) );
+		assertEquals( asList( "muruga", null, "ila" ), CollectionUtils.distinctByKeyParallely( names, name -> name == null ? null : name.length() ) );
+	}
+
+	@Test
+	void testDistinctStream() {
+		assertNull( CollectionUtils.distinctStream( null, val -> val, DistinctOptions.inMemory() ) );
+		try( Stream<Integer> distinct = CollectionUtils.distinctStream( Stream.of( 3, 1, 3, 2, 1 ), val -> val
+																	  , DistinctOptions.<Integer>inMemory().withBloomFilter( 10, 0.01 ) ) ) {
+			assertEquals( asList( 3, 1, 2 ), distinct.collect( toList() ) );
+		}
+	}
+
+	@Test
+	void testDistinctStreamParallel() {
+		List<Integer> expected = IntStream.range( 0, 199_999 ).boxed().collect( toList() );
+		try( Stream<Integer> distinct = CollectionUtils.distinctStream( IntStream.range( 0, 2_000_000 ).map( i -> i % 199_999 ).boxed()
+																	  , val -> val, DistinctOptions.inMemory() ) ) {
+			List<Integer> actual = distinct.parallel().map( val -> val ).collect( toList() );
+			assertEquals( expected.size(), actual.size() );
+			assertTrue( expected.equals( actual ) );
+		}
+	}
+
+	@Test
+	void testSpill() {
+		DistinctOptions<String> options = DistinctOptions.<String>inMemory()
+														 .withBloomFilter( 50_000, 0.05 )
+														 .withSpill( 1_000, key -> key.getBytes( StandardCharsets.UTF_8 ) )
+														 .withSpillDirectory( spillDirectory );
+		List<String> input = IntStream.range( 0, 60_000 ).mapToObj( i -> "key" + ( i * 7919 % 20_000 ) ).collect( toList() );
+		List<String> expected = CollectionUtils.distinctOrdered( input );
+		try( Stream<String> distinct = CollectionUtils.distinctStream( input.stream(), key -> key, options ) ) {
+			assertEquals( expected, distinct.collect( toList() ) );
+		}
+		Deduplicator<String> deduplicator = new Deduplicator<>( options.withBloomFilter( 1, 0.5 ) );
+		Set<String> seen = new HashSet<>();
+		for( String key : input )
+			assertEquals( seen.add( key ), deduplicator.add( key ) );
+		// 20 spills: 16 merged into one run of level 2, the next 4 into one run of level 1
+		assertEquals( 2, deduplicator.spilledRuns() );
+		assertEquals( 2, spillDirectory.toFile().list( ( dir, name ) -> name.endsWith( ".run" ) ).length );
+		// the 16,000 keys run has more than 64 blocks of keys, so one index level is written to disk
+		assertEquals( 1, spillDirectory.toFile().list( ( dir, name ) -> name.endsWith( ".idx" ) ).length );
+		assertFalse( deduplicator.add( "key0" ) );
+		assertFalse( deduplicator.add( "key19999" ) );
+		assertTrue( deduplicator.add( "key20000" ) );
+		deduplicator.close();
+		assertEquals( 0, spillDirectory.toFile().list().length );
+	}
+}
@@ -0,0 +1,155 @@
+package com.muruga.collection.utils;
+
+import static com.muruga.collection.utils.GroupingKey.ALL;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.averagingDouble;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.maxBy;
+import static java.util.stream.Collectors.summingDouble;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GroupingSetsTest {
+
+	List<Employee> employees;
+	List<Function<Employee,String>> deptAndLname;
+
+	@BeforeEach
+	void setup() {
+		employees = asList( new Employee( "muruga", "k", "IT", 100 )
+						  , new Employee( "ananth", "m", "IT", 110 )
+						  , new Employee( "iniyan", "k", "HR", 130 )
+						  , new Employee( "ila", "k", "HR", 105)
+						  );
+		deptAndLname = asList( Employee::getDept, Employee::getLname );
+	}
+
+	@Test
+	void testRollup() {
+		assertNull( CollectionUtils.groupByRollup( null, deptAndLname, counting() ) );
+		assertEquals( 0, CollectionUtils.groupByRollup( new ArrayList<>(), deptAndLname, counting() ).size() );
+		Map<GroupingKey, Double> sums = CollectionUtils.groupByRollup( employees, deptAndLname, summingDouble( Employee::getSalary ) );
+		assertEquals( 6, sums.size() );
+		assertEquals( Double.valueOf( 100 ), sums.get( GroupingKey.of( "IT", "k" ) ) );
+		assertEquals( Double.valueOf( 235 ), sums.get( GroupingKey.of( "HR", "k" ) ) );
+		assertEquals( Double.valueOf( 210 ), sums.get( GroupingKey.of( "IT", ALL ) ) );
+		assertEquals( Double.valueOf( 445 ), sums.get( GroupingKey.of( ALL, ALL ) ) );
+		assertEquals( CollectionUtils.groupBySum( employees, Employee::getDept, Employee::getSalary ).get( "HR" )
+					, sums.get( GroupingKey.of( "HR", ALL ) ) );
+		assertEquals( sums, CollectionUtils.groupByRollupParallely( employees, deptAndLname, summingDouble( Employee::getSalary ) ) );
+	}
+
+	@Test
+	void testCube() {
+		Map<GroupingKey, Long> counts = CollectionUtils.groupByCube( employees, deptAndLname, counting() );
+		assertEquals( 8, counts.size() );
+		assertEquals( Long.valueOf( 3 ), counts.get( GroupingKey.of( ALL, "k" ) ) );
+		assertEquals( Long.valueOf( 1 ), counts.get( GroupingKey.of( ALL, "m" ) ) );
+		assertEquals( Long.valueOf( 4 ), counts.get( GroupingKey.of( ALL, ALL ) ) );
+		Map<GroupingKey, Double> avgs = CollectionUtils.groupByCubeParallely( employees, deptAndLname, averagingDouble( Employee::getSalary ) );
+		assertEquals( Double.valueOf( 111.25 ), avgs.get( GroupingKey.of( ALL, ALL ) ) );
+		assertEquals( Double.valueOf( 117.5 ), avgs.get( GroupingKey.of( "HR", ALL ) ) );
+	}
+
+	@Test
+	void testGroupingSets() {
+		Map<GroupingKey, Optional<Employee>> max = CollectionUtils.groupByGroupingSets( employees, deptAndLname
+				, maxBy( Comparator.comparingDouble( Employee::getSalary ) ), new int[] { 1 }, new int[] {} );
+		assertEquals( 3, max.size() );
+		assertEquals( "iniyan", max.get( GroupingKey.of( ALL, "k" ) ).get().getFname() );
+		assertEquals( "ananth", max.get( GroupingKey.of( ALL, "m" ) ).get().getFname() );
+		Map<GroupingKey, String> names = CollectionUtils.groupByGroupingSets( employees, deptAndLname
+				, mapping( Employee::getFname, joining( "," ) ), new int[] { 0 } );
+		assertEquals( "muruga,ananth", names.get( GroupingKey.of( "IT", ALL ) ) );
+	}
+
+	@Test
+	void testCubeCollections() {
+		List<String[]> rows = asList( new String[] { "IT", "k", "m" }, new String[] { "IT", "k", "a" }
+									, new String[] { "HR", "k", "i" }, new String[] { "IT", "j", "b" } );
+		List<Function<String[],String>> keys = asList( row -> row[0], row -> row[1] );
+		Map<GroupingKey, Set<String>> sets = CollectionUtils.groupByCube( rows, keys, mapping( row -> row[2], toSet() ) );
+		assertEquals( new HashSet<>( asList( "a", "m" ) ), sets.get( GroupingKey.of( "IT", "k" ) ) );
+		assertEquals( new HashSet<>( asList( "b" ) ), sets.get( GroupingKey.of( "IT", "j" ) ) );
+		assertEquals( new HashSet<>( asList( "a", "b", "m" ) ), sets.get( GroupingKey.of( "IT", ALL ) ) );
+		assertEquals( new HashSet<>( asList( "a", "i", "m" ) ), sets.get( GroupingKey.of( ALL, "k" ) ) );
+		assertEquals( new HashSet<>( asList( "a", "b", "i", "m" ) ), sets.get( GroupingKey.of( ALL, ALL ) ) );
+		Map<GroupingKey, List<String>> lists = CollectionUtils.groupByCubeParallely( rows, keys, mapping( row -> row[2], toList() ) );
+		assertEquals( asList( "m", "a" ), lists.get( GroupingKey.of( "IT", "k" ) ) );
+		assertEquals( asList( "i" ), lists.get( GroupingKey.of( "HR", "k" ) ) );
+		assertEquals( asList( "m", "a", "b" ), lists.get( GroupingKey.of( "IT", ALL ) ) );
+		assertEquals( asList( "m", "a", "i", "b" ), lists.get( GroupingKey.of( ALL, ALL ) ) );
+	}
+
+	@Test
+	void testRollupAggregation() {
+		assertEquals( CollectionUtils.groupByCube( employees, deptAndLname, counting() )
+					, CollectionUtils.groupByCube( employees, deptAndLname, RollupAggregation.count() ) );
+		Map<GroupingKey, Optional<String>> min = CollectionUtils.groupByCube( employees, deptAndLname, RollupAggregation.min( Employee::getFname ) );
+		assertEquals( Optional.of( "ananth" ), min.get( GroupingKey.of( ALL, ALL ) ) );
+		assertEquals( Optional.of( "ila" ), min.get( GroupingKey.of( ALL, "k" ) ) );
+		assertEquals( Optional.of( "muruga" ), CollectionUtils.groupByCube( employees, deptAndLname, RollupAggregation.max( Employee::getFname ) )
+															  .get( GroupingKey.of( "IT", ALL ) ) );
+		Map<GroupingKey, String> names = CollectionUtils.groupByGroupingSets( employees, deptAndLname
+				, RollupAggregation.stringAgg( Employee::getFname, "," ), new int[] { 0, 1 }, new int[] { 0 } );
+		assertEquals( "muruga", names.get( GroupingKey.of( "IT", "k" ) ) );
+		assertEquals( 2, names.get( GroupingKey.of( "IT", ALL ) ).split( "," ).length );
+		assertEquals( 5, names.size() );
+	}
+
+	@Test
+	void testRollupAggregationRounding() {
+		Random random = new Random( 42 );
+		List<double[]> rows = new ArrayList<>();
+		for( int i = 0; i < 100_000; i++ )
+			rows.add( new double[] { random.nextInt( 8 ), random.nextInt( 12 ), random.nextInt( 14 ), random.nextDouble() * 1e6 } );
+		List<Function<double[],Double>> keys = asList( row -> row[0], row -> row[1], row -> row[2] );
+		ToDoubleFunction<double[]> amount = row -> row[3];
+		Map<GroupingKey, Double> expectedSums = CollectionUtils.groupByCube( rows, keys, summingDouble( amount ) );
+		Map<GroupingKey, Double> expectedAvgs = CollectionUtils.groupByCube( rows, keys, averagingDouble( amount ) );
+		for( boolean parallel : new boolean[] { false, true } ) {
+			Map<GroupingKey, Double> sums = parallel ? CollectionUtils.groupByCubeParallely( rows, keys, RollupAggregation.sum( amount ) )
+													 : CollectionUtils.groupByCube( rows, keys, RollupAggregation.sum( amount ) );
+			Map<GroupingKey, Double> avgs = parallel ? CollectionUtils.groupByCubeParallely( rows, keys, RollupAggregation.avg( amount ) )
+													 : CollectionUtils.groupByCube( rows, keys, RollupAggregation.avg( amount ) );
+			assertEquals( expectedSums.keySet(), sums.keySet() );
+			assertEquals( expectedAvgs.keySet(), avgs.keySet() );
+			// coarser levels fold compensated partial sums, so they agree only to rounding
+			expectedSums.forEach( ( key, sum ) -> assertEquals( sum, sums.get( key ), Math.abs( sum ) * 1e-12 ) );
+			expectedAvgs.forEach( ( key, avg ) -> assertEquals( avg, avgs.get( key ), Math.abs( avg ) * 1e-12 ) );
+		}
+	}
+
+	@Test
+	void testNested() {
+		Map<Object, ?> nested = CollectionUtils.groupByNested( employees, deptAndLname, summingDouble( Employee::getSalary ) );
+		assertEquals( 2, nested.size() );
+		assertEquals( Double.valueOf( 110 ), ( ( Map<?, ?> ) nested.get( "IT" ) ).get( "m" ) );
+		assertEquals( Double.valueOf( 235 ), ( ( Map<?, ?> ) nested.get( "HR" ) ).get( "k" ) );
+		assertEquals( nested, CollectionUtils.groupByNestedParallely( employees, deptAndLname, summingDouble( Employee::getSalary ) ) );
+		assertThrows( IllegalArgumentException.class, () -> CollectionUtils.groupByNested( employees, new ArrayList<Function<Employee,String>>()
+																						  , counting() ) );
+		List<Function<Employee,String>> tooMany = new ArrayList<>( Collections.nCopies( 31, Employee::getDept ) );
+		assertThrows( IllegalArgumentException.class, () -> CollectionUtils.groupByNested( employees, tooMany, counting() ) );
+	}
+}
@@ -0,0 +1,87 @@
+package com.muruga.collection.utils;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KeyEncoderTest {
+
+	List<Employee> employees;
+	List<Function<Employee,String>> deptAndLname;
+
+	@BeforeEach
+	void setup() {
+		employees = asList( new Employee( "muruga", "k", "IT", 100 )
+						  , new Employee( "ananth", "m", "IT", 110 )
+						  , new Employee( "iniyan", "k", "HR", 130 )
+						  , new Employee( "ila", "k", "HR", 105)
+						  , new Employee( "arun", null, "HR", 90)
+						  );
+		deptAndLname = asList( Employee::getDept, Employee::getLname );
+	}
+
+	@Test
+	void testEncode() {
+		KeyEncoder<Employee> encoder = KeyEncoder.of( deptAndLname );
+		assertEquals( asList( 0, 1, 2, 2, 3 ), employees.stream().map( encoder::encode ).collect( Collectors.toList() ) );
+		assertEquals( 1, encoder.encode( employees.get( 1 ) ) );
+		assertEquals( 4, encoder.size() );
+		assertEquals( GroupingKey.of( "IT", "k" ), encoder.decode( 0 ) );
+		assertEquals( GroupingKey.of( "HR", null ), encoder.decode( 3 ) );
+	}
+
+	@Test
+	void testEncodeManyKeys() {
+		List<Integer> values = IntStream.range( 0, 100_000 ).boxed().collect( Collectors.toList() );
+		KeyEncoder<Integer> encoder = KeyEncoder.of( asList( val -> val % 100, val -> val % 300, val -> val % 7 ) );
+		values.forEach( encoder::encode );
+		assertEquals( 2100, encoder.size() );
+		assertEquals( GroupingKey.of( 1, 1, 1 ), encoder.decode( encoder.encode( 1 ) ) );
+		assertEquals( GroupingKey.of( 99, 299, 5 ), encoder.decode( encoder.encode( 299 ) ) );
+	}
+
+	@Test
+	void testGroupByEncoded() {
+		assertNull( CollectionUtils.groupByCountEncoded( null, deptAndLname ) );
+		assertEquals( 0, CollectionUtils.groupByCountEncoded( new ArrayList<>(), deptAndLname ).size() );
+		Map<GroupingKey, Long> counts = CollectionUtils.groupByCountEncoded( employees, deptAndLname );
+		assertEquals( Long.valueOf( 2 ), counts.get( GroupingKey.of( "HR", "k" ) ) );
+		assertEquals( Long.valueOf( 1 ), counts.get( GroupingKey.of( "HR", null ) ) );
+		Map<GroupingKey, Double> sums = CollectionUtils.groupBySumEncoded( employees, deptAndLname, Employee::getSalary );
+		assertEquals( Double.valueOf( 235 ), sums.get( GroupingKey.of( "HR", "k" ) ) );
+		Map<GroupingKey, Double> avgs = CollectionUtils.groupByAvgEncoded( employees, asList( Employee::getDept ), Employee::getSalary );
+		assertEquals( CollectionUtils.groupByAvg( employees, Employee::getDept, Employee::getSalary ).get( "HR" )
+					, avgs.get( GroupingKey.of( "HR" ) ) );
+		assertEquals( "ananth", CollectionUtils.groupByMinEncoded( employees, asList( Employee::getDept ), Employee::getFname )
+											   .get( GroupingKey.of( "IT" ) ) );
+		assertEquals( Double.valueOf( 130 ), CollectionUtils.groupByMaxEncoded( employees, asList( Employee::getDept ), Employee::getSalary )
+															.get( GroupingKey.of( "HR" ) ) );
+		assertEquals( "iniyan,ila,arun", CollectionUtils.groupByStringAggEncoded( employees, asList( Employee::getDept )
+																				 , Employee::getFname, "," )
+														.get( GroupingKey.of( "HR" ) ) );
+	}
+
+	@Test
+	void testSumEncodedCompensated() {
+		List<Employee> small = IntStream.range( 0, 1000 )
+										.mapToObj( i -> new Employee( "e" + i, "k", i % 2 == 0 ? "IT" : "HR", i == 0 ? 1e16 : 0.1 ) )
+										.collect( Collectors.toList() );
+		Map<GroupingKey, Double> sums = CollectionUtils.groupBySumEncoded( small, asList( Employee::getDept ), Employee::getSalary );
+		Map<String, Double> expectedSums = CollectionUtils.groupBySum( small, Employee::getDept, Employee::getSalary );
+		assertEquals( expectedSums.get( "IT" ), sums.get( GroupingKey.of( "IT" ) ) );
+		assertEquals( expectedSums.get( "HR" ), sums.get( GroupingKey.of( "HR" ) ) );
+		Map<GroupingKey, Double> avgs = CollectionUtils.groupByAvgEncoded( small, asList( Employee::getDept ), Employee::getSalary );
+		assertEquals( CollectionUtils.groupByAvg( small, Employee::getDept, Employee::getSalary ).get( "IT" )
+					, avgs.get( GroupingKey.of( "IT" ) ) );
+	}
+}
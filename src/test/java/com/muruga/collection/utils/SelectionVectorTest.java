@@ -0,0 +1,95 @@
+package com.muruga.collection.utils;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SelectionVectorTest {
+
+	List<Employee> employees;
+
+	@BeforeEach
+	void setup() {
+		employees = asList( new Employee( "muruga", "k", "IT", 100 )
+						  , new Employee( "ananth", "k", "IT", 110 )
+						  , new Employee( "iniyan", "k", "HR", 130 )
+						  , new Employee( "ila", "k", "HR", 105)
+						  );
+	}
+
+	@Test
+	void testSelecting() {
+		assertNull( CollectionUtils.selecting( null, emp -> true ) );
+		assertTrue( CollectionUtils.selecting( new ArrayList<Employee>(), emp -> true ).isEmpty() );
+		SelectionVector it = CollectionUtils.selecting( employees, emp -> emp.getDept().equals( "IT" ) );
+		SelectionVector rich = CollectionUtils.selecting( employees, emp -> emp.getSalary() > 100 );
+		assertEquals( SelectionVector.of( 0, 1 ), it );
+		assertEquals( SelectionVector.of( 1 ), it.and( rich ) );
+		assertEquals( SelectionVector.of( 0, 1, 2, 3 ), it.or( rich ) );
+		assertEquals( SelectionVector.of( 2, 3 ), rich.andNot( it ) );
+		assertEquals( asList( employees.get( 1 ) ), CollectionUtils.selectedList( employees, it.and( rich ) ) );
+		assertEquals( asList( employees.get( 2 ), employees.get( 3 ) )
+					, CollectionUtils.selectedList( new LinkedList<>( employees ), rich.andNot( it ) ) );
+	}
+
+	@Test
+	void testAggregateSelected() {
+		SelectionVector rich = CollectionUtils.selecting( employees, emp -> emp.getSalary() > 100 );
+		Map<String, Double> sums = CollectionUtils.groupBySum( CollectionUtils.selectedView( employees, rich )
+															 , Employee::getDept, Employee::getSalary );
+		assertEquals( Double.valueOf( 110 ), sums.get( "IT" ) );
+		assertEquals( Double.valueOf( 235 ), sums.get( "HR" ) );
+		assertEquals( Double.valueOf( 345 ), CollectionUtils.summingDouble( CollectionUtils.selectedView( employees, rich ), Employee::getSalary ) );
+	}
+
+	@Test
+	void testGroupSelectedDuplicates() {
+		List<String> names = asList( "ila", "ila", "bob", "ila", "anbu" );
+		SelectionVector threeLetters = CollectionUtils.selecting( names, name -> name.length() == 3 );
+		List<String> view = CollectionUtils.selectedView( names, threeLetters );
+		assertTrue( view instanceof RandomAccess );
+		assertFalse( CollectionUtils.selectedView( new LinkedList<>( names ), threeLetters ) instanceof RandomAccess );
+		assertEquals( CollectionUtils.groupBy( asList( "ila", "ila", "bob", "ila" ), String::length )
+					, CollectionUtils.groupBy( view, String::length ) );
+		assertEquals( asList( "ila", "ila", "bob", "ila" )
+					, CollectionUtils.groupBy( CollectionUtils.selectedView( new LinkedList<>( names ), threeLetters ), String::length ).get( 3 ) );
+		assertEquals( Long.valueOf( 3 ), CollectionUtils.groupByCount( view, name -> name ).get( "ila" ) );
+	}
+
+	@Test
+	void testLargeSelections() {
+		List<Integer> values = IntStream.range( 0, 300_000 ).boxed().collect( Collectors.toList() );
+		Predicate<Integer> even = val -> val % 2 == 0;
+		Predicate<Integer> sparse = val -> val % 1000 == 0;
+		SelectionVector evens = CollectionUtils.selectingParallely( values, even );
+		SelectionVector thousands = CollectionUtils.selecting( values, sparse );
+		assertEquals( CollectionUtils.selecting( values, even ), evens );
+		assertEquals( 150_000, evens.cardinality() );
+		assertEquals( 300, thousands.cardinality() );
+		assertTrue( evens.contains( 299_998 ) );
+		assertFalse( evens.contains( 299_999 ) );
+		assertEquals( thousands, evens.and( thousands ) );
+		assertEquals( evens, evens.or( thousands ) );
+		assertEquals( 149_700, evens.andNot( thousands ).cardinality() );
+		assertArrayEquals( values.stream().filter( even.or( val -> val % 3 == 0 ) ).mapToInt( val -> val ).toArray()
+						 , evens.or( CollectionUtils.selecting( values, val -> val % 3 == 0 ) ).toArray() );
+		assertArrayEquals( values.stream().filter( even.negate().and( val -> val % 7 == 0 ) ).mapToInt( val -> val ).toArray()
+						 , CollectionUtils.selecting( values, val -> val % 7 == 0 ).andNot( evens ).toArray() );
+		assertEquals( CollectionUtils.filteringList( values, sparse ), CollectionUtils.selectedList( values, thousands ) );
+	}
+}